@@ -0,0 +1,39 @@
+package instruction;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks of decoding instructions and formatting their codes. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InstructionBenchmark {
+
+  private final InstructionFactory factory = new InstructionFactory();
+
+  // Cycles through all 8-bit codes
+  private int code;
+
+  @Benchmark
+  public Instruction createInstruction() {
+    code = (code + 1) & 0xFF;
+    return factory.createInstruction(code);
+  }
+
+  @Benchmark
+  public String toBinaryString() {
+    code = (code + 1) & 0xFF;
+    return Instruction.toBinaryString(code, 8, 4);
+  }
+}
@@ -0,0 +1,82 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import util.ExamplesHandler;
+
+/** Benchmarks of writing to a storage, and of exporting and importing memory images. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ByteStorageBenchmark {
+
+  @Param({"0", "1", "8"})
+  int listeners;
+
+  private ByteStorage storage;
+  private int address;
+
+  // A full memory image, in both export formats
+  private ByteStorage image;
+  private String[] binary;
+  private String base64;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    storage = new ByteStorage(256);
+    for (int i = 0; i < listeners; i++) {
+      storage.addListener((startIdx, values) -> blackhole.consume(values));
+    }
+
+    image = new ByteStorage(256);
+    image.importFromBinary(ExamplesHandler.getExample("Hello world loop"));
+    binary = image.exportAsBinary();
+    // Imports read lines without spaces, as FileHandler does
+    for (int i = 0; i < binary.length; i++) {
+      binary[i] = binary[i].replace(" ", "");
+    }
+    base64 = image.exportAsBase64();
+  }
+
+  @Benchmark
+  public void setValueAt() {
+    address = (address + 1) & 0xFF;
+    storage.setValueAt(address, address);
+  }
+
+  @Benchmark
+  public String exportAsBase64() {
+    return image.exportAsBase64();
+  }
+
+  @Benchmark
+  public ByteStorage importFromBase64() {
+    storage.importFromBase64(base64);
+    return storage;
+  }
+
+  @Benchmark
+  public String[] exportAsBinary() {
+    return image.exportAsBinary();
+  }
+
+  @Benchmark
+  public ByteStorage importFromBinary() {
+    storage.importFromBinary(binary);
+    return storage;
+  }
+}
@@ -0,0 +1,120 @@
+package model;
+
+import instruction.InstructionFactory;
+import io.IOModule;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ExamplesHandler;
+
+/** Benchmarks of executing programs, one step at a time and in headless runs. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CPUBenchmark {
+
+  // An endless loop that loads two values, adds them, stores the result and jumps back to 0, as
+  // in CPUAllocationTest
+  private static final int[] LOOP = {
+    0b0101_0011, 5, // LD 5 -> OP1
+    0b0101_0100, 7, // LD 7 -> OP2
+    0b0001_0000, // ADD
+    0b0111_0101, 20, // ST RES -> m[20]
+    0b0011_0001, // INC R1
+    0b1001_0000 // JMP *R0
+  };
+
+  /** A CPU that runs the endless loop. */
+  @State(Scope.Thread)
+  public static class Looping {
+    CPU cpu;
+
+    @Setup
+    public void setUp() {
+      ByteStorage memory = new ByteStorage(256);
+      for (int i = 0; i < LOOP.length; i++) {
+        memory.setValueAt(i, LOOP[i]);
+      }
+      cpu = new CPU(memory, new InstructionFactory(), new IOModule());
+    }
+  }
+
+  /** A CPU loaded with one of the bundled examples. */
+  @State(Scope.Thread)
+  public static class Example {
+
+    // Programs that do not halt are stopped by the step budget
+    private static final RunOptions OPTIONS = RunOptions.unlimited().withMaxSteps(100_000);
+
+    @Param({
+      "Hello world",
+      "Hello world loop",
+      "Segfault",
+      "Segfault inf loop",
+      "Simple add",
+      "Simple loop",
+      "Tiny program"
+    })
+    String name;
+
+    @Param({"INTERPRETER", "BLOCK", "COMPILED"})
+    RunOptions.Engine engine;
+
+    String[] image;
+    ByteStorage memory;
+    CPU cpu;
+    RunOptions options;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+      checkAllExamplesBenchmarked();
+      image = ExamplesHandler.getExample(name);
+      memory = new ByteStorage(256);
+      cpu = new CPU(memory, new InstructionFactory(), new IOModule());
+      options = OPTIONS.withEngine(engine);
+    }
+
+    /**
+     * Fail if an example in the resources is missing from the names above, which have to be
+     * constants, so that a new example is not left out silently.
+     */
+    private static void checkAllExamplesBenchmarked() throws NoSuchFieldException {
+      List<String> names =
+          List.of(Example.class.getDeclaredField("name").getAnnotation(Param.class).value());
+      List<String> missing =
+          ExamplesHandler.getExampleNames().stream().filter(n -> !names.contains(n)).toList();
+      if (!missing.isEmpty()) {
+        throw new IllegalStateException("Examples missing from the benchmark: " + missing);
+      }
+    }
+  }
+
+  @Benchmark
+  public int step(Looping state) {
+    state.cpu.step();
+    return state.cpu.getProgramCounter().getCurrentIndex();
+  }
+
+  /**
+   * Load an example and run it from the start. Loading invalidates the code of the engines, so this
+   * includes the cost of translating the program.
+   */
+  @Benchmark
+  public RunResult run(Example state) {
+    state.memory.importFromBinary(state.image);
+    state.cpu.reset();
+    return state.cpu.run(state.options);
+  }
+}
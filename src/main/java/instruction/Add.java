@@ -2,6 +2,7 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -13,28 +14,28 @@ public class Add extends Instruction {
 
   @Override
   protected void internalExecute(Memory mem, Registry reg, ProgramCounter pc, IO io) {
-    int a = reg.getRegister(Registry.REG_OP1);
-    int b = reg.getRegister(Registry.REG_OP2);
+    int a = reg.getRegister(Registry.IDX_OP1);
+    int b = reg.getRegister(Registry.IDX_OP2);
     int result = a + b;
-    reg.setRegister(Registry.REG_RES, result);
+    reg.setRegister(Registry.IDX_RES, result);
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     return "";
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
     return new int[] {memIdx};
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
     return new int[] {
-      Registry.nameToIdx(Registry.REG_OP1),
-      Registry.nameToIdx(Registry.REG_OP2),
-      Registry.nameToIdx(Registry.REG_RES)
+      Registry.IDX_OP1,
+      Registry.IDX_OP2,
+      Registry.IDX_RES
     };
   }
 }
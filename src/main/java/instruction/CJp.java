@@ -2,17 +2,18 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
 public class CJp extends Instruction {
 
-  static final int EQUAL = 0x1;
-  static final int NOT_EQUAL = 0x2;
-  static final int LESS_THAN = 0x3;
-  static final int GREATER_THAN = 0x4;
-  static final int LESS_THAN_OR_EQUAL = 0x5;
-  static final int GREATER_THAN_OR_EQUAL = 0x6;
+  public static final int EQUAL = 0x1;
+  public static final int NOT_EQUAL = 0x2;
+  public static final int LESS_THAN = 0x3;
+  public static final int GREATER_THAN = 0x4;
+  public static final int LESS_THAN_OR_EQUAL = 0x5;
+  public static final int GREATER_THAN_OR_EQUAL = 0x6;
 
   public CJp(int operand) {
     super(InstructionFactory.INST_NAME_CJP, operand);
@@ -28,7 +29,7 @@ public class CJp extends Instruction {
     int op2 = value & 0xF;
 
     // Read destination from the RES register.
-    int dst = reg.getRegister(Registry.REG_RES);
+    int dst = reg.getRegister(Registry.IDX_RES);
 
     int a = reg.getValueAt(op1);
     int b = reg.getValueAt(op2);
@@ -77,7 +78,7 @@ public class CJp extends Instruction {
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     int value = mem.getValueAt(memIdx + 1);
     int op1 = value >> 4;
     int op2 = value & 0xF;
@@ -93,8 +94,8 @@ public class CJp extends Instruction {
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
-    int dst = reg.getRegister(Registry.REG_RES);
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
+    int dst = reg.getRegister(Registry.IDX_RES);
     if (mem.size() <= memIdx + 1) {
       return new int[] {memIdx, dst};
     }
@@ -102,7 +103,7 @@ public class CJp extends Instruction {
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
     int value = mem.getValueAt(memIdx + 1);
     int op1 = value >> 4;
     int op2 = value & 0xF;
@@ -2,6 +2,7 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -35,7 +36,7 @@ public class Cpy extends Instruction {
   }
 
   @Override
-  public String prettyPrint(Memory mem, Registry reg, int memIdx) {
+  public String prettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     String base = super.prettyPrint(mem, reg, memIdx);
     if (isMove()) {
       return base.replace(InstructionFactory.INST_NAME_CPY, InstructionFactory.INST_NAME_MOV);
@@ -44,7 +45,7 @@ public class Cpy extends Instruction {
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     if (memIdx + 1 >= mem.size()) {
       return String.format("(%s %s %s)", INVALID_REG_CHAR, RIGHT_ARROW_CHAR, INVALID_REG_CHAR);
     }
@@ -56,7 +57,7 @@ public class Cpy extends Instruction {
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
     if (memIdx >= mem.size()) {
       return new int[] { memIdx };
     }
@@ -64,7 +65,7 @@ public class Cpy extends Instruction {
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
     if (memIdx >= mem.size()) {
       return new int[0];
     }
@@ -2,6 +2,7 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -18,17 +19,17 @@ public class Hlt extends Instruction {
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     return "";
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
     return new int[] {memIdx};
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
     return new int[0];
   }
 }
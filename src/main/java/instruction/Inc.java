@@ -2,6 +2,7 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -18,17 +19,17 @@ public class Inc extends Instruction {
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     return String.format("(%s)", Registry.idxToName(operand));
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
     return new int[] {memIdx};
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
     if (operand >= 0 && operand < Registry.NUM_REGISTERS) {
       return new int[] {operand};
     }
@@ -2,6 +2,7 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -39,11 +40,11 @@ public abstract class Instruction {
     this.autoIncrement = autoIncrement;
   }
 
-  public String prettyPrint(Memory mem, Registry reg, int memIdx) {
+  public String prettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     return String.format("%s %s", name, internalPrettyPrint(mem, reg, memIdx)).trim();
   }
 
-  protected abstract String internalPrettyPrint(Memory mem, Registry reg, int memIdx);
+  protected abstract String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx);
 
   public final void execute(Memory mem, Registry reg, ProgramCounter pc, IO io) {
     if (autoIncrement) {
@@ -65,7 +66,7 @@ public abstract class Instruction {
    *
    * @return an array of memory cell indices, which will always include at least itself.
    */
-  public abstract int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx);
+  public abstract int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx);
 
   /**
    * Get the indices of all registers affected by this instruction. This is used to highlight the
@@ -73,7 +74,7 @@ public abstract class Instruction {
    *
    * @return an array of register indices, which may be empty.
    */
-  public abstract int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx);
+  public abstract int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx);
 
   /**
    * Parse the addressing mode of an operand. The mode is a 2-bit value, and must occupy the last
@@ -100,17 +101,37 @@ public abstract class Instruction {
     return toBinaryString(value, length, -1);
   }
 
+  /**
+   * Get the binary digits of a value, padded with zeros to a length, and with a space between
+   * every group of digits from the left if {@code groupSize > 1}. Bytes in groups of four, as in
+   * memory exports, are looked up in a table.
+   */
   public static String toBinaryString(int value, int length, int groupSize) {
-    String formatSpecifier = String.format("%%%ds", length);
-    String bin = String.format(formatSpecifier, Integer.toBinaryString(value)).replace(' ', '0');
-    if (groupSize > 1 && bin.length() > groupSize) {
-      // Insert spaces every groupSize characters
-      StringBuilder sb = new StringBuilder(bin);
-      for (int i = groupSize; i < sb.length(); i += groupSize + 1) {
-        sb.insert(i, ' ');
+    if (length == 8 && groupSize == 4 && (value & ~0xFF) == 0) {
+      return GROUPED_BYTES[value];
+    }
+    return formatBinary(value, length, groupSize);
+  }
+
+  private static final String[] GROUPED_BYTES = new String[256];
+
+  static {
+    for (int value = 0; value < GROUPED_BYTES.length; value++) {
+      GROUPED_BYTES[value] = formatBinary(value, 8, 4);
+    }
+  }
+
+  private static String formatBinary(int value, int length, int groupSize) {
+    int digits = Math.max(length, Math.max(1, 32 - Integer.numberOfLeadingZeros(value)));
+    boolean grouped = groupSize > 1 && digits > groupSize;
+    char[] chars = new char[grouped ? digits + (digits - 1) / groupSize : digits];
+    for (int i = 0, j = 0; i < digits; i++) {
+      if (grouped && i > 0 && i % groupSize == 0) {
+        chars[j++] = ' ';
       }
-      return sb.toString();
+      int shift = digits - 1 - i;
+      chars[j++] = shift < 32 && (value >>> shift & 1) != 0 ? '1' : '0';
     }
-    return bin;
+    return new String(chars);
   }
 }
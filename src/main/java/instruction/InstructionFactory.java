@@ -1,7 +1,9 @@
 package instruction;
 
 import io.IO;
+import java.util.List;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -63,7 +65,62 @@ public class InstructionFactory {
         || code == INST_HLT;
   }
 
+  /**
+   * Decode table holding one shared instruction instance per 8-bit code. All instructions are
+   * immutable functions of their code, so the same instance can be reused every time the code is
+   * executed or rendered, without allocating a new object.
+   */
+  private static final Instruction[] DECODE_TABLE = new Instruction[256];
+
+  static {
+    for (int code = 0; code < DECODE_TABLE.length; code++) {
+      DECODE_TABLE[code] = newInstruction(code);
+    }
+  }
+
+  /**
+   * Get the shared instruction instance for the given code. Only the last 8 bits of the code are
+   * used.
+   *
+   * @param code The instruction code, i.e. the value of a memory cell.
+   * @return The shared instruction instance for the code.
+   */
+  public static Instruction decode(int code) {
+    return DECODE_TABLE[code & 0xFF];
+  }
+
+  /**
+   * Get a read-only view of the full decode table, indexed by the 8-bit instruction code.
+   *
+   * @return An unmodifiable list with 256 entries.
+   */
+  public static List<Instruction> getDecodeTable() {
+    return List.of(DECODE_TABLE);
+  }
+
+  /**
+   * Get the number of cells of an instruction: 2 for the instructions that read the next cell as
+   * their operand, e.g. {@code LD}, otherwise 1.
+   */
+  public static int instructionLength(int code) {
+    switch (code & 0xF0) {
+      case INST_CPY:
+      case INST_LOD:
+      case INST_LDA:
+      case INST_STO:
+      case INST_STA:
+      case INST_CJP:
+        return 2;
+      default:
+        return 1;
+    }
+  }
+
   public Instruction createInstruction(int code) {
+    return decode(code);
+  }
+
+  private static Instruction newInstruction(int code) {
     // Extract the opcode (first 4 bits) and the operand (last 4 bits)
     int opcode = code & 0xF0;
     int operand = code & 0x0F;
@@ -105,7 +162,7 @@ public class InstructionFactory {
 
   private static class NullInstruction extends Instruction {
 
-    private int opcode;
+    private final int opcode;
 
     public NullInstruction(int opcode) {
       super("--", 0);
@@ -119,17 +176,17 @@ public class InstructionFactory {
     }
 
     @Override
-    protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+    protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
       return "";
     }
 
     @Override
-    public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
+    public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
       return new int[] { memIdx };
     }
 
     @Override
-    public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
+    public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
       return new int[0];
     }
   }
@@ -2,6 +2,7 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -19,12 +20,12 @@ public class Jmp extends Instruction {
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     return String.format("(dst: *%s)", Registry.idxToName(operand));
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
     if (operand >= 0 && operand < Registry.NUM_REGISTERS) {
       return new int[] {memIdx, reg.getValueAt(operand)};
     }
@@ -32,7 +33,7 @@ public class Jmp extends Instruction {
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
     if (operand >= 0 && operand < Registry.NUM_REGISTERS) {
       return new int[] {operand};
     }
@@ -2,6 +2,7 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -17,7 +18,7 @@ public class Ld extends Instruction {
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     if (memIdx >= mem.size()) {
       return "(" + Instruction.INVALID_REG_CHAR + ")";
     }
@@ -27,7 +28,7 @@ public class Ld extends Instruction {
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
     if (memIdx >= mem.size()) {
       return new int[] {memIdx};
     }
@@ -35,7 +36,7 @@ public class Ld extends Instruction {
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
     if (operand >= 0 && operand < Registry.NUM_REGISTERS) {
       return new int[] {operand};
     }
@@ -2,6 +2,7 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -14,22 +15,22 @@ public class PrD extends Instruction {
 
   @Override
   protected void internalExecute(Memory mem, Registry reg, ProgramCounter pc, IO io) {
-    int value = reg.getRegister(Registry.REG_OUT);
+    int value = reg.getRegister(Registry.IDX_OUT);
     io.print(value);
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     return "";
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
     return new int[] {memIdx};
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
-    return new int[] {Registry.nameToIdx(Registry.REG_OUT)};
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
+    return new int[] {Registry.IDX_OUT};
   }
 }
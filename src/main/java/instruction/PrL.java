@@ -3,6 +3,7 @@ package instruction;
 import io.IO;
 import java.util.ArrayList;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -20,29 +21,29 @@ public class PrL extends Instruction {
 
   @Override
   protected void internalExecute(Memory mem, Registry reg, ProgramCounter pc, IO io) {
-    int start = reg.getRegister(Registry.REG_OP1);
-    int end = reg.getRegister(Registry.REG_OP2);
+    int start = reg.getRegister(Registry.IDX_OP1);
+    int end = reg.getRegister(Registry.IDX_OP2);
 
     int character = mem.getValueAt(start);
-    reg.setRegister(Registry.REG_OUT, character);
+    reg.setRegister(Registry.IDX_OUT, character);
     io.print((char) character);
 
     if (start >= end) {
       pc.next();
     } else {
-      reg.setRegister(Registry.REG_OP1, start + 1);
+      reg.setRegister(Registry.IDX_OP1, start + 1);
     }
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     return "";
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
-    int start = reg.getRegister(Registry.REG_OP1);
-    int end = reg.getRegister(Registry.REG_OP2);
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
+    int start = reg.getRegister(Registry.IDX_OP1);
+    int end = reg.getRegister(Registry.IDX_OP2);
 
     ArrayList<Integer> indices = new ArrayList<>();
     indices.add(memIdx);
@@ -58,7 +59,7 @@ public class PrL extends Instruction {
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
-    return new int[] {Registry.nameToIdx(Registry.REG_OUT)};
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
+    return new int[] {Registry.IDX_OUT};
   }
 }
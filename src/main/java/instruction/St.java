@@ -2,6 +2,7 @@ package instruction;
 
 import io.IO;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.Registry;
 
@@ -21,7 +22,7 @@ public class St extends Instruction {
   }
 
   @Override
-  protected String internalPrettyPrint(Memory mem, Registry reg, int memIdx) {
+  protected String internalPrettyPrint(MemoryReader mem, Registry reg, int memIdx) {
     if (memIdx >= mem.size()) {
       return Instruction.INVALID_REG_CHAR;
     }
@@ -33,7 +34,7 @@ public class St extends Instruction {
   }
 
   @Override
-  public int[] getAffectedMemoryCells(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedMemoryCells(MemoryReader mem, Registry reg, int memIdx) {
     if (memIdx >= mem.size()) {
       return new int[] {memIdx};
     }
@@ -42,7 +43,7 @@ public class St extends Instruction {
   }
 
   @Override
-  public int[] getAffectedRegisters(Memory mem, Registry reg, int memIdx) {
+  public int[] getAffectedRegisters(MemoryReader mem, Registry reg, int memIdx) {
     if (operand >= 0 && operand < Registry.NUM_REGISTERS) {
       return new int[] {operand};
     }
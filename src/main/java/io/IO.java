@@ -7,4 +7,10 @@ public interface IO {
   void print(char character);
 
   int modCount();
+
+  /**
+   * Make sure that all output printed so far has been delivered. Called by the CPU when it halts
+   * or a run stops, for IO that buffers its output.
+   */
+  default void flush() {}
 }
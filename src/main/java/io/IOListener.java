@@ -5,4 +5,15 @@ public interface IOListener {
   void print(int value);
 
   void print(char character);
+
+  /**
+   * Print consecutive characters at once, e.g. a chunk of buffered output, see {@link
+   * IOModule#IOModule(int, java.util.concurrent.Executor)}. The text is only valid during the call.
+   * By default, the characters are printed one at a time.
+   */
+  default void print(CharSequence text) {
+    for (int i = 0; i < text.length(); i++) {
+      print(text.charAt(i));
+    }
+  }
 }
@@ -1,31 +1,214 @@
 package io;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import util.ListenerList;
 
+/**
+ * IO of a machine, which tells the listeners about everything printed. Unless buffered, every
+ * print is delivered to the listeners at once, in the printing thread.
+ *
+ * <p>Buffered IO puts printed characters and numbers in a lock-free ring buffer with a single
+ * producer, the thread of the CPU, and a single consumer, a drain task on the given executor. The
+ * task is scheduled once for all output printed while it has not run yet, and delivers the output
+ * to the listeners in chunks: characters printed after each other make one {@link
+ * IOListener#print(CharSequence)}. Listeners are only called by the drain task, e.g. on the EDT.
+ *
+ * <p>If the buffer is full, the printing thread waits until the drain task has freed enough slots,
+ * and {@link #flush()} waits until all output has been delivered. On the thread of the executor,
+ * e.g. when the CPU is stepped on the EDT, the drain task could not run while the caller waits, so
+ * the output is drained at once instead. The executor must run its tasks on a single thread and in
+ * order, as the EDT does, and the thread is learnt from a task scheduled on creation.
+ */
 public class IOModule implements IO, ObservableIO {
 
-  private Set<IOListener> listeners;
+  // Slot in the buffer that is followed by a printed number, while other slots are characters
+  private static final int NUMBER = -1;
+
+  // How long a waiting printing thread spins before it parks, and then how long it parks at a time
+  private static final int SPINS = 100;
+  private static final long PARK_NANOS = 100_000;
+
+  private final ListenerList<IOListener> listeners;
   private int modCount;
 
+  // Buffered IO only. The producer writes the slots from tail and publishes them by advancing
+  // tail, and the consumer reads the slots up to tail and frees them by advancing head once they
+  // have been delivered.
+  private final int[] buffer;
+  private final int bufferMask;
+  private final Executor drainExecutor;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final Runnable drainTask = this::drainTask;
+  private final StringBuilder chunk = new StringBuilder(); // Only used by the drain task
+  private volatile Thread drainThread; // Once the executor has run the first task
+  private boolean draining; // Only used on the drain thread, to tell when listeners print
+  private volatile long head;
+  private volatile long tail;
+  private long cachedHead; // The head as last read by the producer
+
+  /** Create IO that delivers every print at once. */
   public IOModule() {
-    this.listeners = new HashSet<>();
+    this.listeners = new ListenerList<>();
     this.modCount = 0;
+    this.buffer = null;
+    this.bufferMask = 0;
+    this.drainExecutor = null;
+  }
+
+  /**
+   * Create buffered IO.
+   *
+   * @param capacity The number of slots of the buffer, a power of two. A character takes one slot,
+   *     and a number two.
+   * @param drainExecutor Runs the tasks that deliver the buffered output to the listeners, e.g.
+   *     {@code SwingUtilities::invokeLater} to print on the EDT.
+   */
+  public IOModule(int capacity, Executor drainExecutor) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    if (drainExecutor == null) {
+      throw new IllegalArgumentException("Drain executor must not be null");
+    }
+    this.listeners = new ListenerList<>();
+    this.modCount = 0;
+    this.buffer = new int[capacity];
+    this.bufferMask = capacity - 1;
+    this.drainExecutor = drainExecutor;
+    // Runs before any task scheduled later, e.g. before an event of the EDT that steps the CPU
+    drainExecutor.execute(() -> drainThread = Thread.currentThread());
+  }
+
+  public boolean isBuffered() {
+    return buffer != null;
   }
 
   @Override
   public void print(int value) {
     modCount++;
-    for (IOListener listener : listeners) {
-      listener.print(value);
+    if (buffer == null) {
+      listeners.fire(IOListener::print, value);
+      return;
     }
+    long t = tail;
+    reserve(t, 2);
+    buffer[(int) t & bufferMask] = NUMBER;
+    buffer[(int) (t + 1) & bufferMask] = value;
+    tail = t + 2;
+    scheduleDrain();
   }
 
   @Override
   public void print(char character) {
     modCount++;
-    for (IOListener listener : listeners) {
-      listener.print(character);
+    if (buffer == null) {
+      listeners.fire((listener, c) -> listener.print((char) c), character);
+      return;
+    }
+    long t = tail;
+    reserve(t, 1);
+    buffer[(int) t & bufferMask] = character;
+    tail = t + 1;
+    scheduleDrain();
+  }
+
+  /** Make sure that there are free slots from the tail, by waiting for the drain task if needed. */
+  private void reserve(long t, int slots) {
+    long minHead = t + slots - buffer.length;
+    if (cachedHead >= minHead) {
+      return;
+    }
+    if (Thread.currentThread() == drainThread) {
+      if (draining) {
+        throw new IllegalStateException("A listener printed more than the buffer can hold");
+      }
+      drain();
+      cachedHead = head;
+      return;
+    }
+    for (int i = 0; (cachedHead = head) < minHead; i++) {
+      // A drain task has been scheduled for the output that fills the buffer
+      if (i < SPINS) {
+        Thread.onSpinWait();
+      } else {
+        LockSupport.parkNanos(PARK_NANOS);
+      }
+    }
+  }
+
+  private void scheduleDrain() {
+    if (!drainScheduled.get() && drainScheduled.compareAndSet(false, true)) {
+      drainExecutor.execute(drainTask);
+    }
+  }
+
+  private void drainTask() {
+    drainThread = Thread.currentThread();
+    // Only one task drains at a time, since a new one is not scheduled until this one is done.
+    // Output printed after the last drain and before the flag was cleared is drained here.
+    do {
+      drain();
+      drainScheduled.set(false);
+    } while (head != tail && drainScheduled.compareAndSet(false, true));
+  }
+
+  private void drain() {
+    draining = true;
+    try {
+      long h = head;
+      long t = tail;
+      while (h < t) {
+        int slot = buffer[(int) h & bufferMask];
+        if (slot == NUMBER) {
+          int value = buffer[(int) (h + 1) & bufferMask];
+          deliverChunk();
+          listeners.fire(IOListener::print, value);
+          h += 2;
+          head = h;
+        } else {
+          chunk.append((char) slot);
+          h++;
+        }
+      }
+      deliverChunk();
+      head = h;
+    } finally {
+      draining = false;
+    }
+  }
+
+  private void deliverChunk() {
+    if (chunk.length() > 0) {
+      listeners.fire(IOListener::print, chunk);
+      chunk.setLength(0);
+    }
+  }
+
+  /**
+   * Wait until the drain task has delivered all output printed so far, or deliver it at once on
+   * the thread of the executor. Returns early if the calling thread is interrupted, and the output
+   * is then delivered later.
+   */
+  @Override
+  public void flush() {
+    if (buffer == null) {
+      return;
+    }
+    if (Thread.currentThread() == drainThread) {
+      if (!draining) { // A listener that flushes is told the rest once it returns
+        drain();
+      }
+      return;
+    }
+    long t = tail;
+    for (int i = 0; head < t && !Thread.currentThread().isInterrupted(); i++) {
+      if (i < SPINS) {
+        Thread.onSpinWait();
+      } else {
+        LockSupport.parkNanos(PARK_NANOS);
+      }
     }
   }
 
@@ -34,6 +217,11 @@ public class IOModule implements IO, ObservableIO {
     listeners.add(listener);
   }
 
+  /** Time the listeners while they handle prints, see {@link ListenerList#setTimingHook}. */
+  public void setListenerTimingHook(ListenerList.TimingHook hook) {
+    listeners.setTimingHook(hook);
+  }
+
   @Override
   public int modCount() {
     return modCount;
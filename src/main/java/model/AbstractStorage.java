@@ -0,0 +1,598 @@
+package model;
+
+import instruction.Instruction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Base64.Decoder;
+import java.util.Base64.Encoder;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import util.IntTuple;
+import util.ListenerList;
+import util.Range;
+
+/**
+ * Base of the storages of 8-bit or 16-bit cells, see {@link WordWidth}, which implements the
+ * listeners, the fingerprint and the bulk operations on top of a few primitives to read and write
+ * single cells. Subclasses decide how the cells are kept, e.g. one per {@code int} in {@link
+ * ByteStorage}, or one per byte in {@link PackedStorage}, {@link OffHeapStorage} and {@link
+ * MappedStorage}.
+ */
+public abstract class AbstractStorage implements Memory {
+
+  /** Salt for the fingerprint keys of memory storages. */
+  static final long MEMORY_SALT = 0x6A09E667F3BCC909L;
+
+  private final int size;
+  private final WordWidth width;
+  private final int mask;
+  private final ListenerList<StorageListener> listeners = new ListenerList<>();
+  private WriteObserver writeObserver;
+
+  // Cells written while the listeners are detached or a batch is open, see #detachListeners()
+  // and #beginBatch()
+  private final BitSet dirty;
+  private boolean detached;
+  private int batchDepth;
+
+  // Zobrist-style fingerprint of the stored values, see #fingerprint(). It is only kept up to date
+  // once it has been asked for, since the hashing is a large part of the cost of a write.
+  private final long salt;
+  private long fingerprint;
+  private boolean fingerprinted;
+
+  /**
+   * Create a storage with its own set of fingerprint keys. Storages that are fingerprinted together
+   * should use different salts, so that equal values in equal addresses do not cancel out.
+   */
+  protected AbstractStorage(int size, long salt) {
+    this(size, salt, WordWidth.NARROW);
+  }
+
+  /** Same as {@link #AbstractStorage(int, long)}, with cells of a width. */
+  protected AbstractStorage(int size, long salt, WordWidth width) {
+    if (size <= 0 || size > width.maxCells()) {
+      throw new IllegalArgumentException("Invalid size: " + size);
+    }
+    this.size = size;
+    this.width = width;
+    this.mask = width.mask();
+    dirty = new BitSet(size);
+    this.salt = salt;
+    this.fingerprint = 0; // All keys for the value 0 are 0
+  }
+
+  /**
+   * Observer of every write to a storage, including bulk operations. Unlike {@link
+   * StorageListener}, it is told which addresses were written without being given the values, so
+   * it costs nothing on the write path. Used to keep caches of decoded memory contents coherent.
+   */
+  interface WriteObserver {
+    /** Called after the addresses in the range [from, to) have been written. */
+    void onWrite(int from, int to);
+  }
+
+  /** Get the value of a cell as it is kept, without masking. */
+  protected abstract int load(int address);
+
+  /** Keep a value in a cell, without validating the address or notifying anyone. */
+  protected abstract void save(int address, int value);
+
+  /** Copy cells within the storage, as {@link System#arraycopy} does for overlapping ranges. */
+  protected void copyWithin(int from, int to, int length) {
+    if (from < to) {
+      for (int i = length - 1; i >= 0; i--) {
+        save(to + i, load(from + i));
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        save(to + i, load(from + i));
+      }
+    }
+  }
+
+  /** Set the cells in [from, to) to a value, without notifying anyone. */
+  protected void fill(int from, int to, int value) {
+    for (int address = from; address < to; address++) {
+      save(address, value);
+    }
+  }
+
+  /**
+   * Get the number of cells of the whole image, which is exported, imported and fingerprinted.
+   * Larger than the size for storages where only part of the image is visible at a time.
+   */
+  protected int imageSize() {
+    return size;
+  }
+
+  /** Get the index in the image of the cell that is visible at an address. */
+  protected int imageIndex(int address) {
+    return address;
+  }
+
+  /** Same as {@link #load}, by index in the image. */
+  protected int loadImage(int index) {
+    return load(index);
+  }
+
+  /** Same as {@link #save}, by index in the image. */
+  protected void saveImage(int index, int value) {
+    save(index, value);
+  }
+
+  /** Get the values of the cells in [from, to), without masking. */
+  private int[] values(int from, int to) {
+    int[] values = new int[to - from];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = load(from + i);
+    }
+    return values;
+  }
+
+  @Override
+  public void setValueAt(int address, int value) {
+    if (address < 0 || address >= size) {
+      throw new IllegalArgumentException("Address out of bounds: " + address);
+    }
+    setValueUnchecked(address, value);
+  }
+
+  /** Same as {@link #setValueAt}, for callers that have already validated the address. */
+  void setValueUnchecked(int address, int value) {
+    if (fingerprinted) {
+      int index = imageIndex(address);
+      fingerprint ^= key(index, load(address)) ^ key(index, value);
+    }
+    save(address, value);
+    written(address, address + 1);
+    notifyListenersSingle(address, value);
+  }
+
+  @Override
+  public int setValuesInRange(Range range, int[] values) {
+    Range limited = range.limit(0, size);
+    int length = Math.min(values.length, limited.length());
+
+    for (int i = 0, address = limited.from(); i < length; i++, address++) {
+      if (fingerprinted) {
+        int index = imageIndex(address);
+        fingerprint ^= key(index, load(address)) ^ key(index, values[i]);
+      }
+      save(address, values[i]);
+    }
+
+    int[] usedValues = Arrays.copyOfRange(values, 0, length);
+    int excess = values.length - length;
+
+    written(limited.from(), limited.from() + length);
+
+    notifyListenersRange(range.from(), usedValues);
+
+    return excess;
+  }
+
+  @Override
+  public int getValueAt(int address) {
+    return load(address) & mask;
+  }
+
+  /** Get a value as it is kept, e.g. -12 after setting -12, where {@link #getValueAt} gives 244. */
+  public int getRawValueAt(int address) {
+    return load(address);
+  }
+
+  @Override
+  public int[] getValuesInRange(Range range) {
+    if (!(range.isAbove(0) && range.isBelow(size))) {
+      throw new IllegalArgumentException("Invalid range: " + range);
+    }
+    return values(range.from(), range.to());
+  }
+
+  /** Set the observer of all writes, or null to remove it. */
+  void setWriteObserver(WriteObserver observer) {
+    this.writeObserver = observer;
+  }
+
+  private void written(int from, int to) {
+    if (from >= to) {
+      return;
+    }
+    if (writeObserver != null) {
+      writeObserver.onWrite(from, to);
+    }
+    afterWrite(from, to);
+  }
+
+  /** Called after the cells in [from, to) have been written, before the listeners are told. */
+  protected void afterWrite(int from, int to) {}
+
+  /**
+   * Tell the write observer and the listeners that the visible cells in [from, to) changed without
+   * being written, e.g. when another part of the image was made visible.
+   */
+  protected void visibleCellsChanged(int from, int to) {
+    written(from, to);
+    notifyListenersRange(from, values(from, to));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public WordWidth width() {
+    return width;
+  }
+
+  @Override
+  public long fingerprint() {
+    if (!fingerprinted) {
+      fingerprinted = true;
+      rehash();
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Get the Zobrist key of a value at an image index. Each (index, masked value) pair is mapped to
+   * a pseudo-random 64-bit key with the SplitMix64 finalizer, so no key table has to be kept in
+   * memory. The key of the value 0 is always 0, which makes the fingerprint of an empty storage 0.
+   */
+  private long key(int index, int value) {
+    value &= mask;
+    if (value == 0) {
+      return 0;
+    }
+    long z = salt + (((long) index << width.bits()) | value) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /** Recompute the fingerprint from scratch, after bulk operations on the store. */
+  private void rehash() {
+    if (!fingerprinted) {
+      return;
+    }
+    long hash = 0;
+    for (int i = 0; i < imageSize(); i++) {
+      hash ^= key(i, loadImage(i));
+    }
+    fingerprint = hash;
+  }
+
+  public void reset() {
+    fill(0, size, 0);
+    fingerprint = 0;
+    written(0, size);
+    notifyListenersAll();
+  }
+
+  @Override
+  public void addListener(StorageListener listener) {
+    listeners.add(listener);
+  }
+
+  /** Time the listeners while they handle changes, see {@link ListenerList#setTimingHook}. */
+  public void setListenerTimingHook(ListenerList.TimingHook hook) {
+    listeners.setTimingHook(hook);
+  }
+
+  @Override
+  public void detachListeners() {
+    detached = true;
+  }
+
+  @Override
+  public void attachListeners() {
+    if (!detached) {
+      return;
+    }
+    detached = false;
+    if (batchDepth > 0) {
+      return; // The open batch delivers the changes when committed
+    }
+    int from = dirty.nextSetBit(0);
+    while (from >= 0) {
+      int to = dirty.nextClearBit(from);
+      notifyListenersRange(from, values(from, to));
+      from = dirty.nextSetBit(to);
+    }
+    dirty.clear();
+  }
+
+  public boolean isDetached() {
+    return detached;
+  }
+
+  @Override
+  public void beginBatch() {
+    batchDepth++;
+  }
+
+  @Override
+  public void commit() {
+    if (batchDepth == 0) {
+      throw new IllegalStateException("No batch to commit");
+    }
+    if (--batchDepth > 0 || detached) {
+      return;
+    }
+    int from = dirty.nextSetBit(0);
+    if (from >= 0) {
+      int to = dirty.length();
+      dirty.clear();
+      notifyListenersRange(from, values(from, to));
+    }
+  }
+
+  private boolean deferNotifications() {
+    return detached || batchDepth > 0;
+  }
+
+  private void notifyListenersSingle(int address, int value) {
+    if (deferNotifications()) {
+      dirty.set(address);
+      return;
+    }
+    if (listeners.isEmpty()) {
+      return; // Avoid allocating the array of values on the execution hot path
+    }
+    listeners.fire(StorageListener::onStorageChanged, address, new int[] {value});
+  }
+
+  private void notifyListenersRange(int startIdx, int[] values) {
+    if (deferNotifications()) {
+      int from = Math.max(startIdx, 0);
+      int to = Math.min(startIdx + values.length, size);
+      if (from < to) {
+        dirty.set(from, to);
+      }
+      return;
+    }
+    listeners.fire(StorageListener::onStorageChanged, startIdx, values);
+  }
+
+  private void notifyListenersAll() {
+    notifyListenersRange(0, values(0, size));
+  }
+
+  @Override
+  public String[] exportAsBinary() {
+    // trim empty bytes from the end
+    int end = imageSize();
+    while (end > 0 && loadImage(end - 1) == 0) {
+      end--;
+    }
+    if (end == 0) {
+      return new String[0];
+    }
+    String[] data = new String[end];
+    for (int i = 0; i < end; i++) {
+      data[i] = Instruction.toBinaryString(loadImage(i) & mask, width.bits(), 4);
+    }
+    return data;
+  }
+
+  @Override
+  public void importFromBinary(String[] data) {
+    for (int i = 0; i < data.length && i < imageSize(); i++) {
+      saveImage(i, Integer.parseInt(data[i], 2) & mask);
+    }
+    // Fill the rest with zeros
+    for (int i = data.length; i < imageSize(); i++) {
+      saveImage(i, 0);
+    }
+    rehash();
+    written(0, size);
+    notifyListenersAll();
+  }
+
+  public String exportAsBase64() {
+    List<Integer> zeroCounts = new ArrayList<>();
+    List<byte[]> chunks = new ArrayList<>();
+    int i = 0;
+
+    while (i < imageSize()) {
+      if (loadImage(i) == 0) {
+        i += countZeros(i, zeroCounts);
+      } else {
+        i += copyNonZeroBytes(i, chunks);
+      }
+    }
+
+    return formatBase64(zeroCounts, chunks);
+  }
+
+  private int countZeros(int startIndex, List<Integer> zeroCounts) {
+    int count = 0;
+    while (startIndex + count < imageSize() && loadImage(startIndex + count) == 0) {
+      count++;
+    }
+    zeroCounts.add(count);
+    return count;
+  }
+
+  private int copyNonZeroBytes(int startIndex, List<byte[]> chunks) {
+    int count = 0;
+    while (startIndex + count < imageSize() && loadImage(startIndex + count) != 0) {
+      count++;
+    }
+    // Cells wider than a byte are exported big-endian
+    int bytes = width.bytesPerCell();
+    byte[] chunk = new byte[count * bytes];
+    for (int j = 0; j < chunk.length; j++) {
+      int shift = (bytes - 1 - j % bytes) * 8;
+      chunk[j] = (byte) (loadImage(startIndex + j / bytes) >> shift);
+    }
+    chunks.add(chunk);
+    return count;
+  }
+
+  private String formatBase64(List<Integer> zeroCounts, List<byte[]> chunks) {
+    if (chunks.isEmpty()) {
+      return "";
+    }
+
+    Encoder encoder = Base64.getEncoder();
+    List<String> base64List =
+        chunks.stream().map(encoder::encodeToString).collect(Collectors.toList());
+
+    StringBuilder base64 = new StringBuilder();
+    Iterator<Integer> zeroIt = zeroCounts.iterator();
+    Iterator<String> base64It = base64List.iterator();
+
+    // Initial zeros
+    if (loadImage(0) == 0 && zeroIt.hasNext()) {
+      base64.append(":").append(zeroIt.next()).append(":");
+    }
+
+    // Build the encoded string
+    base64.append(base64It.next());
+    while (base64It.hasNext() && zeroIt.hasNext()) {
+      base64.append(":").append(zeroIt.next()).append(":");
+      base64.append(base64It.next());
+    }
+
+    return base64.toString();
+  }
+
+  public void importFromBase64(String base64) {
+    if (!base64.matches("(:\\d+:)?([A-Za-z0-9+/]+={0,2}:\\d+:)*[A-Za-z0-9+/]+={0,2}")) {
+      throw new IllegalArgumentException("Invalid format!");
+    }
+
+    Decoder decoder = Base64.getDecoder();
+    int offset = 0;
+    int i = 0;
+
+    while (i < base64.length()) {
+      if (base64.charAt(i) == ':') {
+        offset += parseEmptySpaces(base64, i);
+        i = base64.indexOf(":", i + 1) + 1; // Move to the character after the second ':'
+      } else {
+        IntTuple diffs = decodeAndStore(base64, i, offset, decoder);
+        i += diffs.a();
+        offset += diffs.b();
+      }
+    }
+
+    rehash();
+    written(0, size);
+    notifyListenersAll();
+  }
+
+  private int parseEmptySpaces(String base64, int start) {
+    int end = base64.indexOf(":", start + 1);
+    return Integer.parseInt(base64.substring(start + 1, end));
+  }
+
+  /**
+   * Decode a chunk of base64 data and store it in the storage array.
+   *
+   * @param base64
+   * @param start
+   * @param offset
+   * @param decoder
+   * @return A tuple containing the length of the chunk (int the base64 string) and the number of
+   *     decoded cells stored.
+   */
+  private IntTuple decodeAndStore(String base64, int start, int offset, Decoder decoder) {
+    int end = base64.indexOf(":", start);
+    if (end == -1) end = base64.length();
+    String chunk = base64.substring(start, end);
+    byte[] decoded = decoder.decode(chunk);
+    int bytes = width.bytesPerCell();
+    if (bytes == 1) {
+      for (int j = 0; j < decoded.length; j++) {
+        saveImage(offset + j, decoded[j]);
+      }
+      return IntTuple.of(end - start, decoded.length);
+    }
+    int cells = decoded.length / bytes;
+    for (int j = 0; j < cells; j++) {
+      int value = 0;
+      for (int k = 0; k < bytes; k++) {
+        value = value << 8 | decoded[j * bytes + k] & 0xFF;
+      }
+      saveImage(offset + j, value);
+    }
+    return IntTuple.of(end - start, cells);
+  }
+
+  @Override
+  public boolean moveCellsUp(final int startIdx, final int endIdx) {
+    // If startIdx is 0 do nothing
+    if (startIdx <= 0 || endIdx > size || startIdx >= endIdx) {
+      return false;
+    }
+
+    // Temporary store for the element that will be overwritten
+    int tmp = load(startIdx - 1);
+
+    // Move section up by one
+    copyWithin(startIdx, startIdx - 1, endIdx - startIdx);
+
+    // Put the temp element at endIdx
+    save(endIdx - 1, tmp);
+    rehash();
+    written(startIdx - 1, endIdx);
+
+    // Notify listeners for each moved cell
+    notifyListenersRange(startIdx - 1, values(startIdx - 1, endIdx));
+
+    return true;
+  }
+
+  @Override
+  public boolean moveCellsDown(final int startIdx, final int endIdx) {
+    // Adjust for exclusive endIdx: check bounds
+    if (endIdx >= size || startIdx < 0 || startIdx >= endIdx) {
+      return false;
+    }
+
+    // Temporary store for the element that will be overwritten
+    int temp = load(endIdx);
+
+    // Move section down by one
+    copyWithin(startIdx, startIdx + 1, endIdx - startIdx);
+
+    // Put the temp element at startIdx
+    save(startIdx, temp);
+    rehash();
+    written(startIdx, endIdx + 1);
+
+    // Notify listeners for each moved cell, including the swapped temp
+    notifyListenersRange(startIdx, values(startIdx, endIdx + 1));
+
+    return true;
+  }
+
+  @Override
+  public void deleteCells(int startIdx, int endIdx) {
+    // Check if the range is valid. endIdx is exclusive.
+    if (startIdx < 0 || endIdx > size || startIdx >= endIdx) {
+      return;
+    }
+
+    int numberOfElementsToDelete = endIdx - startIdx;
+    int elementsToMove = size - endIdx;
+
+    // Move elements up
+    copyWithin(endIdx, startIdx, elementsToMove);
+
+    // Fill vacated slots with zeros
+    fill(size - numberOfElementsToDelete, size, 0);
+    rehash();
+    written(startIdx, size);
+
+    // Notify listeners for each changed cell
+    notifyListenersRange(startIdx, values(startIdx, size));
+  }
+}
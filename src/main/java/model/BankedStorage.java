@@ -0,0 +1,197 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import util.Range;
+
+/**
+ * Storage with several banks of 256 cells, of which one is visible at a time. The cells below
+ * {@link #getCommonCells()} are the same in all banks, e.g. for the code that switches banks, and
+ * the last cell is the bank select: writing a bank number to it, e.g. with {@code ST}, makes that
+ * bank visible. Switching only moves the offset of the visible bank, so it takes constant time
+ * whatever the number of banks.
+ *
+ * <p>Exports, imports and fingerprints cover all banks, bank after bank, with the common cells and
+ * the bank select in the first bank.
+ *
+ * <p>Any bank can be shown without switching to it, through a read-only {@link View}.
+ */
+public class BankedStorage extends AbstractStorage {
+
+  /** Number of cells of a bank, i.e. the visible size of the storage. */
+  public static final int BANK_SIZE = 256;
+
+  /** Address of the bank select cell. */
+  public static final int BANK_SELECT = BANK_SIZE - 1;
+
+  private final int[] store;
+  private final int banks;
+  private final int commonCells;
+  private int bank;
+  private int offset;
+
+  /**
+   * Create a storage with all banks zeroed, and the first bank visible.
+   *
+   * @param banks The number of banks, at most 256 since the bank select is a single cell.
+   * @param commonCells The number of cells from address 0 that are the same in all banks.
+   */
+  public BankedStorage(int banks, int commonCells) {
+    super(BANK_SIZE, MEMORY_SALT);
+    if (banks <= 0 || banks > 256) {
+      throw new IllegalArgumentException("Invalid number of banks: " + banks);
+    }
+    if (commonCells < 0 || commonCells > BANK_SELECT) {
+      throw new IllegalArgumentException("Invalid number of common cells: " + commonCells);
+    }
+    this.store = new int[banks * BANK_SIZE];
+    this.banks = banks;
+    this.commonCells = commonCells;
+  }
+
+  public int getBankCount() {
+    return banks;
+  }
+
+  public int getCommonCells() {
+    return commonCells;
+  }
+
+  /** Get the visible bank. */
+  public int getBank() {
+    return bank;
+  }
+
+  /** Make a bank visible, the same as writing it to {@link #BANK_SELECT}. */
+  public void selectBank(int bank) {
+    if (bank < 0 || bank >= banks) {
+      throw new IllegalArgumentException("Invalid bank: " + bank);
+    }
+    setValueAt(BANK_SELECT, bank);
+  }
+
+  /** Create a read-only view of the storage, which shows the visible bank until told otherwise. */
+  public View view() {
+    return new View();
+  }
+
+  @Override
+  protected int imageIndex(int address) {
+    return imageIndex(offset, address);
+  }
+
+  private int imageIndex(int bankOffset, int address) {
+    return address < commonCells || address == BANK_SELECT ? address : bankOffset + address;
+  }
+
+  @Override
+  protected int load(int address) {
+    return store[imageIndex(address)];
+  }
+
+  @Override
+  protected void save(int address, int value) {
+    store[imageIndex(address)] = value;
+  }
+
+  @Override
+  protected int imageSize() {
+    return store.length;
+  }
+
+  @Override
+  protected int loadImage(int index) {
+    return store[index];
+  }
+
+  @Override
+  protected void saveImage(int index, int value) {
+    store[index] = value;
+  }
+
+  @Override
+  protected void afterWrite(int from, int to) {
+    if (from <= BANK_SELECT && BANK_SELECT < to) {
+      // Numbers beyond the last bank wrap around, as addresses do
+      int selected = (store[BANK_SELECT] & 0xFF) % banks;
+      if (selected != bank) {
+        bank = selected;
+        offset = selected * BANK_SIZE;
+        visibleCellsChanged(commonCells, BANK_SELECT);
+      }
+    }
+  }
+
+  @Override
+  public void reset() {
+    Arrays.fill(store, 0);
+    super.reset();
+  }
+
+  /**
+   * Read-only view of the cells of a bank, e.g. for a memory view that pages between banks while
+   * the machine keeps running in its own. The view reads the image of the storage directly, so it
+   * always shows the current values, and selecting a bank neither writes {@link #BANK_SELECT} nor
+   * notifies anyone. Changes are told by the listeners of the banked storage, whose addresses are
+   * the same as those of the view.
+   */
+  public final class View implements MemoryReader {
+
+    /** Shown bank of a view that follows the visible bank of the storage. */
+    public static final int VISIBLE = -1;
+
+    private int shownBank = VISIBLE;
+
+    private View() {}
+
+    /** Show a bank, or the visible bank of the storage with {@link #VISIBLE}. */
+    public void showBank(int bank) {
+      if (bank != VISIBLE && (bank < 0 || bank >= banks)) {
+        throw new IllegalArgumentException("Invalid bank: " + bank);
+      }
+      shownBank = bank;
+    }
+
+    /** Get the shown bank, or {@link #VISIBLE}. */
+    public int getShownBank() {
+      return shownBank;
+    }
+
+    /** Get the bank whose cells are shown, which is the visible one if the view follows it. */
+    public int getBank() {
+      return shownBank == VISIBLE ? bank : shownBank;
+    }
+
+    /** Whether the shown bank is the visible one, also when it is selected by number. */
+    public boolean showsVisibleBank() {
+      return getBank() == bank;
+    }
+
+    @Override
+    public int size() {
+      return BANK_SIZE;
+    }
+
+    @Override
+    public int getValueAt(int address) {
+      return load(address) & width().mask();
+    }
+
+    @Override
+    public int[] getValuesInRange(Range range) {
+      if (!(range.isAbove(0) && range.isBelow(BANK_SIZE))) {
+        throw new IllegalArgumentException("Invalid range: " + range);
+      }
+      int[] values = new int[range.length()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = load(range.from() + i);
+      }
+      return values;
+    }
+
+    private int load(int address) {
+      Objects.checkIndex(address, BANK_SIZE);
+      return store[imageIndex(getBank() * BANK_SIZE, address)];
+    }
+  }
+}
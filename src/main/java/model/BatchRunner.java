@@ -0,0 +1,172 @@
+package model;
+
+import instruction.InstructionFactory;
+import io.IOListener;
+import io.IOModule;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import util.Range;
+
+/**
+ * Runs many programs in parallel, e.g. to grade a batch of submissions. Every program is run on a
+ * machine of its own, with its own memory, CPU and IO module, so the runs share no mutable state
+ * and scale with the number of cores. The programs are run as tasks of a work-stealing {@link
+ * ForkJoinPool}, so that short programs do not leave cores idle while long ones finish.
+ */
+public class BatchRunner implements AutoCloseable {
+
+  /** Size of the memory of every machine, the same as in the UI. */
+  public static final int MEMORY_SIZE = 256;
+
+  /**
+   * A program to run. Exactly one of the image formats must be given.
+   *
+   * @param name A name that identifies the program in the results.
+   * @param binary The memory image as lines of binary text, see {@link Memory#importFromBinary}.
+   * @param base64 The memory image in base64, see {@link Memory#exportAsBase64()}.
+   * @param options The budget of the run.
+   */
+  public record Job(String name, String[] binary, String base64, RunOptions options) {
+
+    public Job {
+      if ((binary == null) == (base64 == null)) {
+        throw new IllegalArgumentException("Exactly one memory image is required: " + name);
+      }
+      if (options == null) {
+        throw new IllegalArgumentException("Missing run options: " + name);
+      }
+    }
+
+    public static Job ofBinary(String name, String[] binary, RunOptions options) {
+      return new Job(name, binary, null, options);
+    }
+
+    public static Job ofBase64(String name, String base64, RunOptions options) {
+      return new Job(name, null, base64, options);
+    }
+
+    public Job withOptions(RunOptions options) {
+      return new Job(name, binary, base64, options);
+    }
+  }
+
+  /**
+   * The outcome of a job.
+   *
+   * @param name The name of the job.
+   * @param run The outcome of the run. An image that cannot be loaded is reported as an {@link
+   *     RunResult.Reason#ERROR} after 0 steps.
+   * @param output Everything the program printed. Numbers are printed on lines of their own, as in
+   *     the UI.
+   * @param memory The 8-bit values of the memory when the run stopped.
+   * @param registers The 8-bit values of the registers when the run stopped.
+   */
+  public record Result(String name, RunResult run, String output, int[] memory, int[] registers) {
+
+    /** Get the program counter when the run stopped. */
+    public int pc() {
+      return registers[Registry.IDX_PC];
+    }
+
+    /** A human-readable description of the outcome, which tells where a cancelled run stopped. */
+    public String message() {
+      if (run.reason() == RunResult.Reason.CANCELLED) {
+        return String.format("Cancelled at step %d, PC=%d.", run.steps(), pc());
+      }
+      return run.message();
+    }
+  }
+
+  private final ForkJoinPool pool;
+
+  /** Create a runner that uses all available cores. */
+  public BatchRunner() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public BatchRunner(int parallelism) {
+    this.pool = new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Run all jobs, and wait for them to finish.
+   *
+   * @return The results, in the same order as the jobs.
+   */
+  public List<Result> runAll(List<Job> jobs) {
+    List<ForkJoinTask<Result>> tasks =
+        jobs.stream().map(job -> ForkJoinTask.adapt(() -> run(job))).toList();
+    return pool.invoke(
+        ForkJoinTask.adapt(
+            () -> {
+              ForkJoinTask.invokeAll(tasks);
+              return tasks.stream().map(ForkJoinTask::join).toList();
+            }));
+  }
+
+  /** Run a single job on a new machine, in the calling thread. */
+  public static Result run(Job job) {
+    ByteStorage memory = new ByteStorage(MEMORY_SIZE);
+    IOModule io = new IOModule();
+    OutputRecorder output = new OutputRecorder();
+    io.addListener(output);
+    CPU cpu = new CPU(memory, new InstructionFactory(), io);
+
+    RunResult result;
+    try {
+      if (job.binary() != null) {
+        memory.importFromBinary(job.binary());
+      } else {
+        memory.importFromBase64(job.base64());
+      }
+      result = cpu.run(job.options());
+    } catch (RuntimeException ex) {
+      result = new RunResult(RunResult.Reason.ERROR, 0, 0, 0, ex);
+    }
+
+    return new Result(
+        job.name(),
+        result,
+        output.toString(),
+        values(memory, memory.size()),
+        values(cpu.getRegistry(), Registry.NUM_REGISTERS));
+  }
+
+  private static int[] values(ObservableStorage storage, int size) {
+    int[] values = storage.getValuesInRange(new Range(0, size));
+    for (int i = 0; i < values.length; i++) {
+      values[i] &= 0xFF;
+    }
+    return values;
+  }
+
+  @Override
+  public void close() {
+    pool.shutdown();
+  }
+
+  /** Records the output of a program, in the same layout as the output panel of the UI. */
+  private static class OutputRecorder implements IOListener {
+
+    private final StringBuilder output = new StringBuilder();
+
+    @Override
+    public void print(int value) {
+      if (output.length() > 0 && output.charAt(output.length() - 1) != '\n') {
+        output.append('\n');
+      }
+      output.append(value).append('\n');
+    }
+
+    @Override
+    public void print(char character) {
+      output.append((char) (character & 0xFF));
+    }
+
+    @Override
+    public String toString() {
+      return output.toString();
+    }
+  }
+}
@@ -0,0 +1,330 @@
+package model;
+
+import instruction.CJp;
+import instruction.InstructionFactory;
+import io.IO;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Execution engine that translates straight-line runs of instructions into blocks of operations.
+ * Each operation is a closure with its operands already decoded, working directly on the register
+ * and memory arrays. Blocks are cached per start address, and end at a jump ({@code JMP}, {@code
+ * CJP}) or just before an instruction that is left to the interpreter.
+ *
+ * <p>The observable results are the same as for the interpreter, with one exception: the program
+ * counter is only updated once per block, so its listeners are not notified of every step. To keep
+ * that exact, instructions whose effects depend on the intermediate program counter are never
+ * compiled, but executed one by one by the interpreter:
+ *
+ * <ul>
+ *   <li>{@code HLT} and {@code PRL}, which halt or do not advance the program counter.
+ *   <li>Instructions that would reach the end of memory, and so halt with {@link
+ *       ProgramCounter#END_OF_MEMORY}.
+ *   <li>Instructions that use the {@code PC} register or an invalid register, or a {@code CJP} with
+ *       an invalid condition.
+ * </ul>
+ *
+ * <p>Loop detection only sees the states between blocks. A loop is therefore proven with the same
+ * cycle length as with the interpreter, but possibly after a different number of steps.
+ *
+ * <p>Operands are read from memory when a block is compiled. The engine therefore observes all
+ * writes to the memory, and drops every block whose bytes are written, e.g. by a program that
+ * modifies its own code with {@code ST} or {@code STA}. If a block overwrites itself, it stops
+ * right after the write.
+ */
+class BlockEngine implements ExecutionEngine, ByteStorage.WriteObserver {
+
+  private static final int OP1 = Registry.IDX_OP1;
+  private static final int OP2 = Registry.IDX_OP2;
+  private static final int RES = Registry.IDX_RES;
+  private static final int OUT = Registry.IDX_OUT;
+  private static final int PC = Registry.IDX_PC;
+
+  /** A compiled instruction. */
+  @FunctionalInterface
+  private interface Op {
+    /** Execute the instruction, and return the address of the next instruction. */
+    int run();
+  }
+
+  private static final class Block {
+    private final int start;
+    private final int end; // Exclusive end of the bytes read when compiling
+    private final Op[] ops;
+    private final int[] fallThrough; // Address after each op, for the interpreter's PC on errors
+    private boolean valid = true;
+
+    private Block(int start, int end, Op[] ops, int[] fallThrough) {
+      this.start = start;
+      this.end = end;
+      this.ops = ops;
+      this.fallThrough = fallThrough;
+    }
+  }
+
+  private final ByteStorage memory;
+  private final RegStorage registry;
+  private final ProgramCounter pc;
+  private final InstructionFactory factory;
+  private final IO io;
+
+  private final int[] mem;
+  private final int[] reg;
+
+  private final Block[] cache;
+  private final int[] coverage; // Number of cached blocks that were compiled from each address
+
+  private int completedSteps;
+
+  BlockEngine(
+      ByteStorage memory,
+      RegStorage registry,
+      ProgramCounter pc,
+      InstructionFactory factory,
+      IO io) {
+    this.memory = memory;
+    this.registry = registry;
+    this.pc = pc;
+    this.factory = factory;
+    this.io = io;
+    this.mem = memory.rawStore();
+    this.reg = registry.rawStore();
+    this.cache = new Block[mem.length];
+    this.coverage = new int[mem.length];
+    memory.setWriteObserver(this);
+  }
+
+  /**
+   * Execute the block at the program counter, or a single instruction with the interpreter. Blocks
+   * always end at jumps, so there is no need to treat yieldAtJumps specially.
+   */
+  @Override
+  public int execute(long budget, boolean yieldAtJumps) {
+    completedSteps = 0;
+    int start = reg[PC] & 0xFF;
+    Block block = start < cache.length ? lookup(start) : null;
+    if (block == null || block.ops.length == 0) {
+      int value = memory.getValueAt(start);
+      factory.createInstruction(value).execute(memory, registry, pc, io);
+      return 1;
+    }
+
+    Op[] ops = block.ops;
+    int length = (int) Math.min(ops.length, budget);
+    int next = start;
+    int i = 0;
+    try {
+      while (i < length) {
+        next = ops[i].run();
+        i++;
+        if (!block.valid) {
+          break;
+        }
+      }
+    } catch (RuntimeException ex) {
+      completedSteps = i;
+      pc.jumpTo(block.fallThrough[i]);
+      throw ex;
+    }
+    pc.jumpTo(next);
+    return i;
+  }
+
+  @Override
+  public int getCompletedSteps() {
+    return completedSteps;
+  }
+
+  @Override
+  public void onWrite(int from, int to) {
+    for (int address = from; address < to; address++) {
+      if (coverage[address] != 0) {
+        invalidate(from, to);
+        return;
+      }
+    }
+  }
+
+  private void invalidate(int from, int to) {
+    for (int start = 0; start < cache.length; start++) {
+      Block block = cache[start];
+      if (block != null && block.start < to && block.end > from) {
+        block.valid = false;
+        cache[start] = null;
+        for (int address = block.start; address < block.end; address++) {
+          coverage[address]--;
+        }
+      }
+    }
+  }
+
+  private Block lookup(int start) {
+    Block block = cache[start];
+    if (block == null) {
+      block = compile(start);
+      cache[start] = block;
+      for (int address = block.start; address < block.end; address++) {
+        coverage[address]++;
+      }
+    }
+    return block;
+  }
+
+  private Block compile(int start) {
+    List<Op> ops = new ArrayList<>();
+    List<Integer> fallThrough = new ArrayList<>();
+    int address = start;
+    int end = start + 1;
+    while (address < mem.length) {
+      int code = mem[address] & 0xFF;
+      int length = ExecutionEngine.instructionLength(code);
+      end = Math.min(address + length, mem.length);
+      if (address + length >= mem.length) {
+        break; // Would halt with END_OF_MEMORY
+      }
+      Op op = compile(address, code, address + length);
+      if (op == null) {
+        break;
+      }
+      ops.add(op);
+      fallThrough.add(address + length);
+      address += length;
+      if (isJump(code)) {
+        break;
+      }
+    }
+    int[] next = new int[fallThrough.size()];
+    for (int i = 0; i < next.length; i++) {
+      next[i] = fallThrough.get(i);
+    }
+    return new Block(start, end, ops.toArray(new Op[0]), next);
+  }
+
+  private static boolean isJump(int code) {
+    int opcode = code & 0xF0;
+    return opcode == InstructionFactory.INST_JMP || opcode == InstructionFactory.INST_CJP;
+  }
+
+  /**
+   * Compile a single instruction.
+   *
+   * @return The compiled instruction, or null if it must be executed by the interpreter.
+   */
+  private Op compile(int address, int code, int next) {
+    int operand = code & 0x0F;
+    int arg = ExecutionEngine.instructionLength(code) == 2 ? mem[address + 1] & 0xFF : 0;
+    int high = arg >> 4;
+    int low = arg & 0xF;
+    switch (code & 0xF0) {
+      case InstructionFactory.INST_NOP:
+        return () -> next;
+      case InstructionFactory.INST_ADD:
+        return () -> {
+          registry.setValueUnchecked(RES, (reg[OP1] & 0xFF) + (reg[OP2] & 0xFF));
+          return next;
+        };
+      case InstructionFactory.INST_SUB:
+        return () -> {
+          registry.setValueUnchecked(RES, (reg[OP1] & 0xFF) - (reg[OP2] & 0xFF));
+          return next;
+        };
+      case InstructionFactory.INST_INC:
+        if (!ExecutionEngine.isPlainRegister(operand)) {
+          return null;
+        }
+        return () -> {
+          registry.setValueUnchecked(operand, (reg[operand] & 0xFF) + 1);
+          return next;
+        };
+      case InstructionFactory.INST_CPY:
+        if (!ExecutionEngine.isPlainRegister(high) || !ExecutionEngine.isPlainRegister(low)) {
+          return null;
+        }
+        if ((operand & 0x1) == 1) {
+          return () -> {
+            registry.setValueUnchecked(low, reg[high] & 0xFF);
+            registry.setValueUnchecked(high, 0);
+            return next;
+          };
+        }
+        return () -> {
+          registry.setValueUnchecked(low, reg[high] & 0xFF);
+          return next;
+        };
+      case InstructionFactory.INST_LOD:
+        if (!ExecutionEngine.isPlainRegister(operand)) {
+          return null;
+        }
+        return () -> {
+          registry.setValueUnchecked(operand, arg);
+          return next;
+        };
+      case InstructionFactory.INST_LDA:
+        if (!ExecutionEngine.isPlainRegister(high) || !ExecutionEngine.isPlainRegister(low)) {
+          return null;
+        }
+        return () -> {
+          registry.setValueUnchecked(low, mem[reg[high] & 0xFF] & 0xFF);
+          return next;
+        };
+      case InstructionFactory.INST_STO:
+        if (!ExecutionEngine.isPlainRegister(operand)) {
+          return null;
+        }
+        return () -> {
+          memory.setValueAt(arg, reg[operand] & 0xFF);
+          return next;
+        };
+      case InstructionFactory.INST_STA:
+        if (!ExecutionEngine.isPlainRegister(high) || !ExecutionEngine.isPlainRegister(low)) {
+          return null;
+        }
+        return () -> {
+          memory.setValueAt(reg[low] & 0xFF, reg[high] & 0xFF);
+          return next;
+        };
+      case InstructionFactory.INST_JMP:
+        if (!ExecutionEngine.isPlainRegister(operand)) {
+          return null;
+        }
+        return () -> reg[operand] & 0xFF;
+      case InstructionFactory.INST_CJP:
+        if (!ExecutionEngine.isPlainRegister(high) || !ExecutionEngine.isPlainRegister(low)) {
+          return null;
+        }
+        return compileCondition(operand, high, low, next);
+      case InstructionFactory.INST_PRT:
+        return () -> {
+          io.print((char) (reg[OUT] & 0xFF));
+          return next;
+        };
+      case InstructionFactory.INST_PRD:
+        return () -> {
+          io.print(reg[OUT] & 0xFF);
+          return next;
+        };
+      default:
+        return null; // HLT, PRL and unknown instructions
+    }
+  }
+
+  private Op compileCondition(int condition, int op1, int op2, int next) {
+    switch (condition) {
+      case CJp.EQUAL:
+        return () -> (reg[op1] & 0xFF) == (reg[op2] & 0xFF) ? reg[RES] & 0xFF : next;
+      case CJp.NOT_EQUAL:
+        return () -> (reg[op1] & 0xFF) != (reg[op2] & 0xFF) ? reg[RES] & 0xFF : next;
+      case CJp.LESS_THAN:
+        return () -> (reg[op1] & 0xFF) < (reg[op2] & 0xFF) ? reg[RES] & 0xFF : next;
+      case CJp.GREATER_THAN:
+        return () -> (reg[op1] & 0xFF) > (reg[op2] & 0xFF) ? reg[RES] & 0xFF : next;
+      case CJp.LESS_THAN_OR_EQUAL:
+        return () -> (reg[op1] & 0xFF) <= (reg[op2] & 0xFF) ? reg[RES] & 0xFF : next;
+      case CJp.GREATER_THAN_OR_EQUAL:
+        return () -> (reg[op1] & 0xFF) >= (reg[op2] & 0xFF) ? reg[RES] & 0xFF : next;
+      default:
+        return null; // Invalid condition, which throws in the interpreter
+    }
+  }
+}
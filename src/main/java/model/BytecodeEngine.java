@@ -0,0 +1,242 @@
+package model;
+
+import instruction.InstructionFactory;
+import io.IO;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Execution engine that compiles the whole memory to a JVM class with {@link ProgramCompiler}, and
+ * defines it as a hidden class. The program is compiled when the engine is first used, and the
+ * hidden class can be unloaded as soon as the engine is gone.
+ *
+ * <p>The engine observes all writes to the memory. An instruction whose bytes have been written
+ * since the program was compiled is executed by the interpreter instead, so a program that
+ * modifies its own code still gives the same results. When the interpreter has taken over for
+ * {@link #RECOMPILE_THRESHOLD} steps, the program is compiled again from the current memory.
+ *
+ * <p>As for {@link BlockEngine}, the program counter is only updated when the compiled code
+ * returns, and instructions that depend on it are left to the interpreter.
+ */
+class BytecodeEngine implements ExecutionEngine, ByteStorage.WriteObserver {
+
+  /** A compiled memory image. Implemented by the generated classes. */
+  interface Program {
+    /**
+     * Run the program from an address, until the budget is used up or an instruction must be
+     * interpreted. The number of executed steps is added to {@link BytecodeEngine#steps}.
+     *
+     * @return The address to continue at, or the inverted (negative) address to stop at.
+     */
+    int run(BytecodeEngine engine, int pc);
+  }
+
+  // Interpreted steps after which the current memory is compiled again
+  static final int RECOMPILE_THRESHOLD = 1024;
+
+  // Step budget of a call to the program without yieldAtJumps, so that the CPU can check its
+  // deadline now and then
+  private static final int SLICE = 1 << 12;
+
+  private static final int OP1 = Registry.IDX_OP1;
+  private static final int OP2 = Registry.IDX_OP2;
+  private static final int OUT = Registry.IDX_OUT;
+  private static final int PC = Registry.IDX_PC;
+
+  private final ByteStorage memory;
+  private final RegStorage registry;
+  private final ProgramCounter pc;
+  private final InstructionFactory factory;
+  private final IO io;
+
+  // State shared with the compiled code, see ProgramCompiler
+  final int[] mem;
+  final int[] reg;
+  final boolean[] valid;
+  int steps;
+  int budget;
+  int failPc;
+  boolean yieldAtJumps;
+  boolean yielded;
+
+  private Program program;
+  private int[] image;
+  private int staleCount;
+  private int interpretedSteps;
+  private int completedSteps;
+
+  BytecodeEngine(
+      ByteStorage memory,
+      RegStorage registry,
+      ProgramCounter pc,
+      InstructionFactory factory,
+      IO io) {
+    this.memory = memory;
+    this.registry = registry;
+    this.pc = pc;
+    this.factory = factory;
+    this.io = io;
+    this.mem = memory.rawStore();
+    this.reg = registry.rawStore();
+    this.valid = new boolean[mem.length];
+    memory.setWriteObserver(this);
+  }
+
+  /**
+   * Run the compiled program, and the interpreter where the program stops. With yieldAtJumps, this
+   * only returns after a jump or other write of the PC, whether it is compiled or interpreted,
+   * since where the program stops depends on which instructions have been written rather than on
+   * the state.
+   */
+  @Override
+  public int execute(long budget, boolean yieldAtJumps) {
+    completedSteps = 0;
+    int executed = 0;
+    while (true) {
+      try {
+        executed += runProgram(budget - executed, yieldAtJumps);
+      } catch (RuntimeException ex) {
+        completedSteps = executed + steps;
+        throw ex;
+      }
+      if (yielded || executed == budget || (executed > 0 && !yieldAtJumps)) {
+        return executed;
+      }
+
+      // The instruction at the PC must be interpreted, or too few steps remain for the program
+      if (staleCount > 0) {
+        interpretedSteps++;
+      }
+      int address = pc.getCurrentIndex();
+      int value;
+      try {
+        value = memory.getValueAt(address);
+        factory.createInstruction(value).execute(memory, registry, pc, io);
+      } catch (RuntimeException ex) {
+        completedSteps = executed;
+        throw ex;
+      }
+      executed++;
+      if (!yieldAtJumps || pc.isHalted() || executed == budget || isJump(address, value)) {
+        return executed;
+      }
+    }
+  }
+
+  private int runProgram(long budget, boolean yieldAtJumps) {
+    if (program == null || (staleCount > 0 && interpretedSteps >= RECOMPILE_THRESHOLD)) {
+      compile();
+    }
+    int start = reg[PC] & 0xFF;
+    this.steps = 0;
+    this.budget = (int) Math.min(budget, yieldAtJumps ? Integer.MAX_VALUE : SLICE);
+    this.failPc = start;
+    this.yieldAtJumps = yieldAtJumps;
+    this.yielded = false;
+    int next = start;
+    try {
+      while (next >= 0) {
+        next = program.run(this, next);
+      }
+    } catch (RuntimeException ex) {
+      pc.jumpTo(failPc);
+      throw ex;
+    }
+    if (steps > 0) {
+      pc.jumpTo(~next);
+    }
+    return steps;
+  }
+
+  /**
+   * Check if an interpreted instruction is one where the compiled code would have yielded: a JMP
+   * or CJP, or any other instruction that wrote the PC. PRL is the only compiled instruction that
+   * stays at its address, and it never yields.
+   */
+  private boolean isJump(int address, int code) {
+    int opcode = code & 0xF0;
+    return opcode == InstructionFactory.INST_JMP
+        || opcode == InstructionFactory.INST_CJP
+        || (opcode != InstructionFactory.INST_PRL
+            && pc.getCurrentIndex() != address + ExecutionEngine.instructionLength(code));
+  }
+
+  @Override
+  public int getCompletedSteps() {
+    return completedSteps;
+  }
+
+  @Override
+  public void onWrite(int from, int to) {
+    if (image == null) {
+      return;
+    }
+    // An instruction also depends on the operand byte after it
+    for (int address = Math.max(from - 1, 0); address < to; address++) {
+      boolean unchanged = matchesImage(address);
+      if (valid[address] != unchanged) {
+        valid[address] = unchanged;
+        staleCount += unchanged ? -1 : 1;
+      }
+    }
+  }
+
+  private boolean matchesImage(int address) {
+    if ((mem[address] & 0xFF) != image[address]) {
+      return false;
+    }
+    int length = ExecutionEngine.instructionLength(image[address]);
+    return length == 1
+        || address + 1 >= mem.length
+        || (mem[address + 1] & 0xFF) == image[address + 1];
+  }
+
+  private void compile() {
+    image = new int[mem.length];
+    for (int i = 0; i < mem.length; i++) {
+      image[i] = mem[i] & 0xFF;
+      valid[i] = true;
+    }
+    staleCount = 0;
+    interpretedSteps = 0;
+
+    byte[] bytes = ProgramCompiler.compile(image);
+    try {
+      Class<?> type = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+      program = (Program) type.getConstructor().newInstance();
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException("Could not define compiled program", ex);
+    }
+  }
+
+  // Called by the compiled code
+
+  void setRegister(int idx, int value) {
+    registry.setValueUnchecked(idx, value);
+  }
+
+  void store(int address, int value) {
+    memory.setValueAt(address, value);
+  }
+
+  void printChar(int value) {
+    io.print((char) value);
+  }
+
+  void printInt(int value) {
+    io.print(value);
+  }
+
+  /** Same as {@code PRL}, returning the address of the next instruction. */
+  int printLoop(int address) {
+    int start = reg[OP1] & 0xFF;
+    int end = reg[OP2] & 0xFF;
+    int character = memory.getValueAt(start);
+    registry.setValueUnchecked(OUT, character);
+    io.print((char) character);
+    if (start >= end) {
+      return address + 1;
+    }
+    registry.setValueUnchecked(OP1, start + 1);
+    return address;
+  }
+}
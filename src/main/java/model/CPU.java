@@ -2,23 +2,48 @@ package model;
 
 import instruction.InstructionFactory;
 import io.IO;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CPU {
 
   public static final int REGISTERS_COUNT = 6;
 
+  /** Step budget of {@link #run()}, which aborts programs that do not halt within it. */
+  public static final int DEFAULT_MAX_STEPS = 1000;
+
+  // Checking the clock is much more expensive than executing an instruction, so the deadline and
+  // the cancellation flag are only checked at safepoints, every 1024 steps (or every 1024 calls to
+  // an execution engine).
+  private static final int SAFEPOINT_MASK = 0x3FF;
+
+  private static final int PC_INDEX = Registry.IDX_PC;
+
   private Memory memory;
   private ProgramCounter pc;
   private InstructionFactory factory;
   private IO io;
 
   private RegStorage registry;
+  // Created on first use, and replaced when another engine is selected, since engines observe
+  // the memory
+  private ExecutionEngine engine;
+  private RunOptions.Engine engineType = RunOptions.Engine.INTERPRETER;
+  private boolean detached;
 
+  // Tracing, see #setTraceRecorder(TraceRecorder)
+  private TraceRecorder tracer;
+  private int tracedRegister = -1;
+  private int tracedWrite = -1;
+
+  /**
+   * Create a CPU for a memory. The registers have the width of the memory cells, so a CPU for a
+   * {@link WordWidth#WIDE} memory is a 16-bit machine.
+   */
   public CPU(Memory memory, InstructionFactory factory, IO io) {
     this.memory = memory;
     this.factory = factory;
     this.io = io;
-    this.registry = new RegStorage();
+    this.registry = new RegStorage(memory.width());
     this.pc = new ProgramCounter(this.registry, memory.size());
   }
 
@@ -26,30 +51,228 @@ public class CPU {
     if (pc.isHalted()) {
       throw new IllegalStateException("CPU is halted");
     }
+    executeInstruction();
+    if (pc.isHalted()) {
+      io.flush();
+    }
+  }
+
+  private void executeInstruction() {
+    if (tracer != null) {
+      executeTraced();
+      return;
+    }
     int value = memory.getValueAt(pc.getCurrentIndex());
     factory.createInstruction(value).execute(memory, registry, pc, io);
   }
 
+  /** Execute an instruction, and record it in the trace, even if it throws. */
+  private void executeTraced() {
+    int address = pc.getCurrentIndex();
+    int value = 0;
+    int operand = 0;
+    tracedRegister = -1;
+    tracedWrite = -1;
+    boolean failed = true;
+    try {
+      value = memory.getValueAt(address);
+      operand = address + 1 < memory.size() ? memory.getValueAt(address + 1) : 0;
+      factory.createInstruction(value).execute(memory, registry, pc, io);
+      failed = false;
+    } finally {
+      int register = tracedRegister;
+      int registerValue = register >= 0 ? registry.getValueAt(register) : 0;
+      int memoryValue = tracedWrite >= 0 ? memory.getValueAt(tracedWrite) : 0;
+      tracer.record(
+          TraceRecorder.pack(
+              address, value, operand, register, registerValue, tracedWrite, memoryValue, failed));
+    }
+  }
+
+  /**
+   * Record every executed instruction in a trace, or stop recording with null. While a trace is
+   * recorded, runs use the interpreter whatever engine their options ask for, since engines do not
+   * execute one instruction at a time. Traces only hold 8-bit values, so wide machines cannot be
+   * traced.
+   */
+  public void setTraceRecorder(TraceRecorder tracer) {
+    if (tracer != null && memory.width() != WordWidth.NARROW) {
+      throw new IllegalStateException("Only 8-bit machines can be traced");
+    }
+    this.tracer = tracer;
+    if (memory instanceof AbstractStorage storage) {
+      // The trace needs the memory write observer, which is otherwise used by the engines
+      engine = null;
+      engineType = RunOptions.Engine.INTERPRETER;
+      storage.setWriteObserver(
+          tracer == null
+              ? null
+              : (from, to) -> {
+                if (tracedWrite < 0) {
+                  tracedWrite = from;
+                }
+              });
+    }
+    // The first register an instruction writes is its destination, e.g. for MOV, which then
+    // clears the source
+    registry.setWriteObserver(
+        tracer == null
+            ? null
+            : (from, to) -> {
+              if (tracedRegister < 0 && from != PC_INDEX) {
+                tracedRegister = from;
+              }
+            });
+  }
+
+  public TraceRecorder getTraceRecorder() {
+    return tracer;
+  }
+
+  /**
+   * Run the program until it halts, with a budget of {@link #DEFAULT_MAX_STEPS} steps.
+   *
+   * @throws IllegalStateException if the CPU is already halted, or if the program does not halt
+   *     within the step budget.
+   */
   public void run() {
     if (pc.isHalted()) {
       throw new IllegalStateException("CPU is halted");
     }
-    int prevIdx = -1;
-    int totalStepCounter = 0;
-    int modCount = -1;
-    while (!pc.isHalted()) {
-      if (pc.getCurrentIndex() == prevIdx && modCount == io.modCount()) {
-        throw new IllegalStateException("Program is stuck. Aborted.");
+    RunResult result = run(RunOptions.unlimited().withMaxSteps(DEFAULT_MAX_STEPS));
+    switch (result.reason()) {
+      case STEP_LIMIT:
+        throw new IllegalStateException(result.message());
+      case ERROR:
+        throw result.error();
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Run the program until it halts, or until one of the limits in the options is reached. Unlike
+   * {@link #run()}, this method never throws because of the program. Instead, the returned result
+   * tells why the run stopped. If the CPU is already halted, nothing is executed and the result
+   * reports the reason of the previous halt. Output that the IO buffers is flushed when the run
+   * stops.
+   *
+   * @param options The step and time budget of the run.
+   * @return The outcome of the run.
+   */
+  public RunResult run(RunOptions options) {
+    boolean detach = options.detached() && !detached;
+    if (detach) {
+      detachListeners();
+    }
+    try {
+      return execute(options);
+    } finally {
+      if (detach) {
+        attachListeners();
       }
-      if (totalStepCounter > 1000) {
-        throw new IllegalStateException(
-            "Possible infinite loop detected. Aborted after 1000 steps.");
+      io.flush(); // Buffered output is shown when the run stops, for any reason
+    }
+  }
+
+  private RunResult execute(RunOptions options) {
+    final long start = System.nanoTime();
+    final long maxSteps = options.maxSteps();
+    final long maxNanos = options.maxNanos();
+    final boolean timed = maxNanos != RunOptions.UNLIMITED;
+    final CycleDetector detector =
+        options.detectLoops() && !pc.isHalted() ? new CycleDetector(memory, registry) : null;
+    final ExecutionEngine engine = getEngine(options.engine());
+    final boolean yieldAtJumps = detector != null;
+    final AtomicBoolean cancellation = options.cancellation();
+    // Virtual threads are never preempted, so long runs let other virtual threads use the carrier
+    // thread at safepoints
+    final boolean virtual = Thread.currentThread().isVirtual();
+
+    long steps = 0;
+    long iterations = 0;
+    try {
+      while (!pc.isHalted()) {
+        if (steps >= maxSteps) {
+          return result(RunResult.Reason.STEP_LIMIT, steps, start);
+        }
+        if ((iterations++ & SAFEPOINT_MASK) == 0) {
+          if (cancellation != null && cancellation.get()) {
+            return result(RunResult.Reason.CANCELLED, steps, start);
+          }
+          if (timed && System.nanoTime() - start >= maxNanos) {
+            return result(RunResult.Reason.TIME_LIMIT, steps, start);
+          }
+          if (virtual && iterations > 1) {
+            Thread.yield();
+          }
+        }
+        int executed;
+        if (engine != null) {
+          executed = engine.execute(maxSteps - steps, yieldAtJumps);
+        } else {
+          executeInstruction();
+          executed = 1;
+        }
+        steps += executed;
+        if (detector != null && !pc.isHalted()) {
+          long cycleLength = detector.afterSteps(executed);
+          if (cycleLength > 0) {
+            return new RunResult(
+                RunResult.Reason.INFINITE_LOOP,
+                steps,
+                System.nanoTime() - start,
+                cycleLength,
+                null);
+          }
+        }
       }
-      int value = memory.getValueAt(pc.getCurrentIndex());
-      factory.createInstruction(value).execute(memory, registry, pc, io);
-      totalStepCounter++;
-      modCount = io.modCount();
+    } catch (RuntimeException ex) {
+      if (engine != null) {
+        steps += engine.getCompletedSteps();
+      }
+      return new RunResult(RunResult.Reason.ERROR, steps + 1, System.nanoTime() - start, 0, ex);
     }
+    RunResult.Reason reason =
+        pc.getHaltReason() == ProgramCounter.END_OF_MEMORY
+            ? RunResult.Reason.END_OF_MEMORY
+            : RunResult.Reason.HALTED;
+    return result(reason, steps, start);
+  }
+
+  /** Get the engine of a type, or null for the interpreter. */
+  private ExecutionEngine getEngine(RunOptions.Engine type) {
+    if (!(memory instanceof ByteStorage storage)) {
+      return null; // Engines need direct access to the memory
+    }
+    if (storage.width() != WordWidth.NARROW) {
+      return null; // Engines are specialized for 8-bit values
+    }
+    if (tracer != null) {
+      return null;
+    }
+    if (type != engineType) {
+      storage.setWriteObserver(null);
+      engine = null;
+      engineType = type;
+    }
+    if (engine == null) {
+      switch (type) {
+        case BLOCK:
+          engine = new BlockEngine(storage, registry, pc, factory, io);
+          break;
+        case COMPILED:
+          engine = new BytecodeEngine(storage, registry, pc, factory, io);
+          break;
+        default:
+          break;
+      }
+    }
+    return engine;
+  }
+
+  private static RunResult result(RunResult.Reason reason, long steps, long start) {
+    return new RunResult(reason, steps, System.nanoTime() - start, 0, null);
   }
 
   public void reset() {
@@ -57,6 +280,28 @@ public class CPU {
     registry.reset();
   }
 
+  /**
+   * Stop notifying the listeners of the memory, the registers and the program counter. Writes are
+   * only recorded, without any allocation or listener calls, until {@link #attachListeners()}.
+   */
+  public void detachListeners() {
+    detached = true;
+    memory.detachListeners();
+    registry.detachListeners();
+    pc.detachListeners();
+  }
+
+  /**
+   * Notify the listeners of everything that changed since {@link #detachListeners()}: once per
+   * contiguous range of written cells, and once for the program counter.
+   */
+  public void attachListeners() {
+    detached = false;
+    memory.attachListeners();
+    registry.attachListeners();
+    pc.attachListeners();
+  }
+
   public void addRegistryListener(StorageListener listener) {
     registry.addListener(listener);
   }
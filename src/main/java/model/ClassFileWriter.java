@@ -0,0 +1,376 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of JVM class files, for the classes generated by {@link ProgramCompiler}. It only
+ * supports what the compiler needs: methods with code and exception handlers, but no fields or
+ * other attributes.
+ *
+ * <p>The class files have version 49 (Java 5). Those are verified by type inference, so no stack
+ * map frames have to be computed for the generated code.
+ */
+final class ClassFileWriter {
+
+  static final int ACC_PUBLIC = 0x0001;
+  static final int ACC_PRIVATE = 0x0002;
+  static final int ACC_STATIC = 0x0008;
+  static final int ACC_FINAL = 0x0010;
+  static final int ACC_SUPER = 0x0020;
+
+  // Opcodes used by the compiler
+  static final int ICONST_0 = 0x03;
+  static final int BIPUSH = 0x10;
+  static final int SIPUSH = 0x11;
+  static final int LDC_W = 0x13;
+  static final int ILOAD = 0x15;
+  static final int ALOAD = 0x19;
+  static final int IALOAD = 0x2E;
+  static final int BALOAD = 0x33;
+  static final int ISTORE = 0x36;
+  static final int ASTORE = 0x3A;
+  static final int IADD = 0x60;
+  static final int ISUB = 0x64;
+  static final int IUSHR = 0x7C;
+  static final int IAND = 0x7E;
+  static final int IXOR = 0x82;
+  static final int IINC = 0x84;
+  static final int IFEQ = 0x99;
+  static final int IFNE = 0x9A;
+  static final int IF_ICMPEQ = 0x9F;
+  static final int IF_ICMPNE = 0xA0;
+  static final int IF_ICMPLT = 0xA1;
+  static final int IF_ICMPGE = 0xA2;
+  static final int IF_ICMPGT = 0xA3;
+  static final int IF_ICMPLE = 0xA4;
+  static final int GOTO = 0xA7;
+  static final int TABLESWITCH = 0xAA;
+  static final int IRETURN = 0xAC;
+  static final int RETURN = 0xB1;
+  static final int GETFIELD = 0xB4;
+  static final int PUTFIELD = 0xB5;
+  static final int INVOKEVIRTUAL = 0xB6;
+  static final int INVOKESPECIAL = 0xB7;
+  static final int INVOKESTATIC = 0xB8;
+  static final int ATHROW = 0xBF;
+
+  private static final int VERSION = 49;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_FIELDREF = 9;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+  private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+  private final DataOutputStream pool = new DataOutputStream(poolBytes);
+  private final Map<String, Integer> poolIndices = new HashMap<>();
+  private int poolCount = 1;
+
+  private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+  private final DataOutputStream methods = new DataOutputStream(methodBytes);
+  private int methodCount = 0;
+
+  private final int thisClass;
+  private final int superClass;
+  private final int[] interfaces;
+
+  ClassFileWriter(String name, String superName, String... interfaceNames) {
+    thisClass = classRef(name);
+    superClass = classRef(superName);
+    interfaces = Arrays.stream(interfaceNames).mapToInt(this::classRef).toArray();
+  }
+
+  /** A position in the code of a method, which may be used before it is marked. */
+  static final class Label {
+    private int position = -1;
+  }
+
+  /** Writer of the code of a single method. */
+  final class Code {
+
+    private final int access;
+    private final String name;
+    private final String descriptor;
+
+    private byte[] code = new byte[256];
+    private int length = 0;
+
+    // Branch offsets to fill in when all labels are marked: {offset position, base, wide}
+    private final List<int[]> fixupPositions = new ArrayList<>();
+    private final List<Label> fixupLabels = new ArrayList<>();
+    private final List<Object[]> handlers = new ArrayList<>();
+
+    private Code(int access, String name, String descriptor) {
+      this.access = access;
+      this.name = name;
+      this.descriptor = descriptor;
+    }
+
+    void op(int opcode) {
+      put(opcode);
+    }
+
+    /** Push an int constant, with the shortest instruction. */
+    void push(int value) {
+      if (value >= -1 && value <= 5) {
+        put(ICONST_0 + value);
+      } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+        put(BIPUSH);
+        put(value);
+      } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+        put(SIPUSH);
+        put(value >> 8);
+        put(value);
+      } else {
+        put(LDC_W);
+        putShort(integer(value));
+      }
+    }
+
+    /** Load or store a local variable, e.g. with {@link #ILOAD} or {@link #ASTORE}. */
+    void local(int opcode, int index) {
+      put(opcode);
+      put(index);
+    }
+
+    void iinc(int index, int delta) {
+      put(IINC);
+      put(index);
+      put(delta);
+    }
+
+    void field(int opcode, String owner, String name, String descriptor) {
+      put(opcode);
+      putShort(memberRef(CONSTANT_FIELDREF, owner, name, descriptor));
+    }
+
+    void invoke(int opcode, String owner, String name, String descriptor) {
+      put(opcode);
+      putShort(memberRef(CONSTANT_METHODREF, owner, name, descriptor));
+    }
+
+    /** Branch to a label, with a conditional branch or {@link #GOTO}. */
+    void jump(int opcode, Label target) {
+      int base = length;
+      put(opcode);
+      fixup(target, base, false);
+      putShort(0);
+    }
+
+    void tableswitch(int low, Label defaultTarget, Label[] targets) {
+      int base = length;
+      put(TABLESWITCH);
+      while (length % 4 != 0) {
+        put(0);
+      }
+      fixup(defaultTarget, base, true);
+      putInt(0);
+      putInt(low);
+      putInt(low + targets.length - 1);
+      for (Label target : targets) {
+        fixup(target, base, true);
+        putInt(0);
+      }
+    }
+
+    void mark(Label label) {
+      label.position = length;
+    }
+
+    /** Catch exceptions of a type thrown in [start, end) in the handler. */
+    void handler(Label start, Label end, Label handler, String type) {
+      handlers.add(new Object[] {start, end, handler, classRef(type)});
+    }
+
+    /** Finish the method, and add it to the class. */
+    void end(int maxStack, int maxLocals) {
+      for (int i = 0; i < fixupLabels.size(); i++) {
+        int[] fixup = fixupPositions.get(i);
+        int offset = position(fixupLabels.get(i)) - fixup[1];
+        if (fixup[2] == 1) {
+          putInt(fixup[0], offset);
+        } else {
+          if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new IllegalStateException("Branch offset too large: " + offset);
+          }
+          code[fixup[0]] = (byte) (offset >> 8);
+          code[fixup[0] + 1] = (byte) offset;
+        }
+      }
+      try {
+        methods.writeShort(access);
+        methods.writeShort(utf8(name));
+        methods.writeShort(utf8(descriptor));
+        methods.writeShort(1); // Attributes: Code
+        methods.writeShort(utf8("Code"));
+        methods.writeInt(12 + length + 8 * handlers.size());
+        methods.writeShort(maxStack);
+        methods.writeShort(maxLocals);
+        methods.writeInt(length);
+        methods.write(code, 0, length);
+        methods.writeShort(handlers.size());
+        for (Object[] handler : handlers) {
+          methods.writeShort(position((Label) handler[0]));
+          methods.writeShort(position((Label) handler[1]));
+          methods.writeShort(position((Label) handler[2]));
+          methods.writeShort((Integer) handler[3]);
+        }
+        methods.writeShort(0); // Code attributes
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+      methodCount++;
+    }
+
+    private int position(Label label) {
+      if (label.position < 0) {
+        throw new IllegalStateException("Label is not marked in " + name);
+      }
+      return label.position;
+    }
+
+    private void fixup(Label target, int base, boolean wide) {
+      fixupPositions.add(new int[] {length, base, wide ? 1 : 0});
+      fixupLabels.add(target);
+    }
+
+    private void put(int b) {
+      if (length == code.length) {
+        code = Arrays.copyOf(code, code.length * 2);
+      }
+      code[length++] = (byte) b;
+    }
+
+    private void putShort(int s) {
+      put(s >> 8);
+      put(s);
+    }
+
+    private void putInt(int i) {
+      putShort(i >> 16);
+      putShort(i);
+    }
+
+    private void putInt(int position, int i) {
+      code[position] = (byte) (i >> 24);
+      code[position + 1] = (byte) (i >> 16);
+      code[position + 2] = (byte) (i >> 8);
+      code[position + 3] = (byte) i;
+    }
+  }
+
+  /** Start a method. The method is added to the class when its code is ended. */
+  Code method(int access, String name, String descriptor) {
+    return new Code(access, name, descriptor);
+  }
+
+  byte[] toByteArray() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0); // Minor version
+      out.writeShort(VERSION);
+      out.writeShort(poolCount);
+      poolBytes.writeTo(out);
+      out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(interfaces.length);
+      for (int index : interfaces) {
+        out.writeShort(index);
+      }
+      out.writeShort(0); // Fields
+      out.writeShort(methodCount);
+      methodBytes.writeTo(out);
+      out.writeShort(0); // Class attributes
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return bytes.toByteArray();
+  }
+
+  private int utf8(String value) {
+    Integer index = poolIndices.get("U" + value);
+    if (index != null) {
+      return index;
+    }
+    try {
+      pool.writeByte(CONSTANT_UTF8);
+      pool.writeUTF(value);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return add("U" + value);
+  }
+
+  private int integer(int value) {
+    Integer index = poolIndices.get("I" + value);
+    if (index != null) {
+      return index;
+    }
+    try {
+      pool.writeByte(CONSTANT_INTEGER);
+      pool.writeInt(value);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return add("I" + value);
+  }
+
+  private int classRef(String name) {
+    Integer index = poolIndices.get("C" + name);
+    if (index != null) {
+      return index;
+    }
+    int nameIndex = utf8(name);
+    try {
+      pool.writeByte(CONSTANT_CLASS);
+      pool.writeShort(nameIndex);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return add("C" + name);
+  }
+
+  private int memberRef(int tag, String owner, String name, String descriptor) {
+    String key = tag + owner + "." + name + ":" + descriptor;
+    Integer index = poolIndices.get(key);
+    if (index != null) {
+      return index;
+    }
+    int ownerIndex = classRef(owner);
+    int nameIndex = utf8(name);
+    int descriptorIndex = utf8(descriptor);
+    int nameAndType = poolIndices.getOrDefault("N" + name + ":" + descriptor, -1);
+    try {
+      if (nameAndType < 0) {
+        pool.writeByte(CONSTANT_NAME_AND_TYPE);
+        pool.writeShort(nameIndex);
+        pool.writeShort(descriptorIndex);
+        nameAndType = add("N" + name + ":" + descriptor);
+      }
+      pool.writeByte(tag);
+      pool.writeShort(ownerIndex);
+      pool.writeShort(nameAndType);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return add(key);
+  }
+
+  private int add(String key) {
+    int index = poolCount++;
+    poolIndices.put(key, index);
+    return index;
+  }
+}
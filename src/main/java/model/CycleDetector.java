@@ -0,0 +1,95 @@
+package model;
+
+/**
+ * Proves that a program never halts, by detecting when the machine returns to a state it has been in
+ * before. The machine is deterministic and has no input, so the complete state (memory, registers
+ * and program counter) decides all future steps. A repeated state therefore means that the program
+ * will loop forever.
+ *
+ * <p>States are compared by fingerprint, using Brent's cycle detection algorithm. The "tortoise"
+ * state is moved to the current state at every power of two steps, and the cycle length is the
+ * number of steps it takes for the current state to return to the tortoise state. Since different
+ * states may share a fingerprint, a snapshot of the tortoise state is kept and compared exactly
+ * before a loop is reported. The snapshot covers the whole image of the memory, e.g. all banks of a
+ * {@link BankedStorage}, since the hidden cells are part of the state too.
+ */
+class CycleDetector {
+
+  private final Memory memory;
+  // The memory if its whole image can be read, which may be larger than its visible cells
+  private final AbstractStorage image;
+  private final RegStorage registry;
+
+  private final int[] memorySnapshot;
+  private final int[] registrySnapshot;
+  private long tortoise;
+
+  private long power = 1;
+  private long lambda = 0;
+  private long steps = 0;
+  private long tortoiseSteps = 0;
+
+  CycleDetector(Memory memory, RegStorage registry) {
+    this.memory = memory;
+    this.image = memory instanceof AbstractStorage storage ? storage : null;
+    this.registry = registry;
+    this.memorySnapshot = new int[image != null ? image.imageSize() : memory.size()];
+    this.registrySnapshot = new int[Registry.NUM_REGISTERS];
+    moveTortoise();
+  }
+
+  /**
+   * Update the detector after one or more steps have been executed. Engines that execute several
+   * steps at a time only let the detector see the states in between, which still proves a loop as
+   * soon as one of them repeats.
+   *
+   * @param count The number of steps executed since the last update.
+   * @return The length of the proven cycle, in steps, or 0 if no cycle has been proven yet.
+   */
+  long afterSteps(int count) {
+    steps += count;
+    lambda++;
+    if (fingerprint() == tortoise && matchesSnapshot()) {
+      return steps - tortoiseSteps;
+    }
+    if (lambda == power) {
+      moveTortoise();
+      power <<= 1;
+      lambda = 0;
+    }
+    return 0;
+  }
+
+  private long fingerprint() {
+    return memory.fingerprint() ^ registry.fingerprint();
+  }
+
+  private void moveTortoise() {
+    tortoise = fingerprint();
+    tortoiseSteps = steps;
+    for (int i = 0; i < memorySnapshot.length; i++) {
+      memorySnapshot[i] = memoryCell(i);
+    }
+    for (int i = 0; i < registrySnapshot.length; i++) {
+      registrySnapshot[i] = registry.getValueAt(i);
+    }
+  }
+
+  private boolean matchesSnapshot() {
+    for (int i = 0; i < registrySnapshot.length; i++) {
+      if (registrySnapshot[i] != registry.getValueAt(i)) {
+        return false;
+      }
+    }
+    for (int i = 0; i < memorySnapshot.length; i++) {
+      if (memorySnapshot[i] != memoryCell(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int memoryCell(int index) {
+    return image != null ? image.loadImage(index) : memory.getValueAt(index);
+  }
+}
@@ -0,0 +1,37 @@
+package model;
+
+import instruction.InstructionFactory;
+
+/**
+ * An engine that executes instructions faster than the interpreter, with the same observable
+ * results. Engines may execute several instructions at a time, and only update the program counter
+ * in between. Instructions that engines cannot execute exactly are left to the interpreter.
+ */
+interface ExecutionEngine {
+
+  /**
+   * Execute one or more instructions, starting at the program counter.
+   *
+   * @param budget The maximum number of instructions to execute, at least 1.
+   * @param yieldAtJumps Whether to return after every taken jump, so that the states in between
+   *     calls only depend on the program, as required by loop detection.
+   * @return The number of executed instructions.
+   */
+  int execute(long budget, boolean yieldAtJumps);
+
+  /** Get the number of instructions that completed before the last call to execute threw. */
+  int getCompletedSteps();
+
+  /** Get the number of bytes of an instruction, including its operand byte. */
+  static int instructionLength(int code) {
+    return InstructionFactory.instructionLength(code);
+  }
+
+  /**
+   * Check if compiled code may use a register: it must be valid, and not the program counter,
+   * which engines do not update for every instruction.
+   */
+  static boolean isPlainRegister(int idx) {
+    return Registry.isValidIndex(idx) && idx != Registry.IDX_PC;
+  }
+}
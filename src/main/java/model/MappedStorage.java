@@ -0,0 +1,104 @@
+package model;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Storage whose cells are the bytes of a memory-mapped file, one byte per cell. Writes are visible
+ * at once to other processes that map the same file, e.g. to inspect a long-running program, and
+ * are kept by the operating system if the process crashes. Opening an image maps it without
+ * copying. Values are truncated to 8 bits when they are written, as in {@link PackedStorage}.
+ *
+ * <p>Writes reach the disk when the operating system decides, or when {@link #force()} is called.
+ * With {@link SyncPolicy#EVERY_WRITE} every write is forced, which survives a crash of the whole
+ * machine but is much slower.
+ */
+public class MappedStorage extends AbstractStorage {
+
+  /** When writes are forced to the disk. */
+  public enum SyncPolicy {
+    /** Only when {@link #force()} is called. */
+    EXPLICIT,
+    /** After every write, including bulk operations. */
+    EVERY_WRITE
+  }
+
+  private final Path path;
+  private final MappedByteBuffer buffer;
+  private final SyncPolicy syncPolicy;
+
+  private MappedStorage(Path path, MappedByteBuffer buffer, SyncPolicy syncPolicy) {
+    super(buffer.capacity(), MEMORY_SALT);
+    this.path = path;
+    this.buffer = buffer;
+    this.syncPolicy = syncPolicy;
+  }
+
+  /**
+   * Map an image file, and create it if it does not exist. A file that is shorter than the storage
+   * is extended with zeros.
+   *
+   * @param path The image file, with one byte per cell.
+   * @param size The number of cells.
+   * @throws IllegalArgumentException If the file is larger than the storage.
+   * @throws IOException If the file cannot be opened or mapped.
+   */
+  public static MappedStorage open(Path path, int size, SyncPolicy syncPolicy) throws IOException {
+    if (size <= 0 || size > 256) {
+      throw new IllegalArgumentException("Invalid size: " + size);
+    }
+    if (Files.exists(path) && Files.size(path) > size) {
+      throw new IllegalArgumentException(
+          String.format("Image is larger than %d bytes: %s", size, path));
+    }
+    // The mapping stays valid after the channel is closed
+    try (FileChannel channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      return new MappedStorage(
+          path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), syncPolicy);
+    }
+  }
+
+  /** Same as {@link #open(Path, int, SyncPolicy)}, with {@link SyncPolicy#EXPLICIT}. */
+  public static MappedStorage open(Path path, int size) throws IOException {
+    return open(path, size, SyncPolicy.EXPLICIT);
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public SyncPolicy getSyncPolicy() {
+    return syncPolicy;
+  }
+
+  /** Write all changes to the disk. */
+  public void force() {
+    buffer.force();
+  }
+
+  @Override
+  protected int load(int address) {
+    return buffer.get(address);
+  }
+
+  @Override
+  protected void save(int address, int value) {
+    buffer.put(address, (byte) value);
+  }
+
+  @Override
+  protected void afterWrite(int from, int to) {
+    if (syncPolicy == SyncPolicy.EVERY_WRITE) {
+      buffer.force(from, to - from);
+    }
+  }
+}
@@ -1,8 +1,21 @@
 package model;
 
-public interface Memory extends ObservableStorage {
+public interface Memory extends ObservableStorage, MemoryReader {
 
-  int size();
+  /** Get the width of the cells, and so of the values that are read. */
+  default WordWidth width() {
+    return WordWidth.NARROW;
+  }
+
+  /**
+   * Get a 64-bit fingerprint of the stored values. Once it has been read, the fingerprint is
+   * updated incrementally on every write, so reading it again is cheap. Equal contents always have
+   * equal fingerprints, while different contents have different fingerprints with very high
+   * probability.
+   *
+   * @return The fingerprint of the current contents.
+   */
+  long fingerprint();
 
   String[] exportAsBinary();
 
@@ -0,0 +1,18 @@
+package model;
+
+import util.Range;
+
+/**
+ * Read-only access to the cells of a memory, e.g. to show and disassemble them without being able
+ * to change them.
+ */
+public interface MemoryReader {
+
+  int size();
+
+  /** Get the value of a cell, masked to the width of the cells. */
+  int getValueAt(int address);
+
+  /** Get the values of a range of cells, see {@link ObservableStorage#getValuesInRange}. */
+  int[] getValuesInRange(Range range);
+}
@@ -5,6 +5,36 @@ import util.Range;
 public interface ObservableStorage {
   void addListener(StorageListener listener);
 
+  /**
+   * Stop notifying listeners, and only record which cells are written, until {@link
+   * #attachListeners()} is called. Used to run many instructions without updating the listeners
+   * for every intermediate value.
+   */
+  void detachListeners();
+
+  /**
+   * Resume notifying listeners after {@link #detachListeners()}. The listeners are notified once
+   * for each contiguous range of cells that was written while detached, with the current values.
+   */
+  void attachListeners();
+
+  /**
+   * Start a transaction of changes, e.g. a file load or a paste. Listeners are not notified of the
+   * changes until the transaction is committed, see {@link #commit()}. Transactions can be nested,
+   * and only the outermost one notifies the listeners.
+   */
+  void beginBatch();
+
+  /**
+   * Commit the transaction started by {@link #beginBatch()}. The listeners are notified once, with
+   * the current values of the range from the first to the last cell written in the transaction,
+   * or not at all if no cell was written. While detached, the changes are instead delivered by
+   * {@link #attachListeners()}.
+   *
+   * @throws IllegalStateException If no transaction is open.
+   */
+  void commit();
+
   /**
    * Set a value in the storage.
    *
@@ -0,0 +1,69 @@
+package model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Storage that keeps every cell in a byte outside of the Java heap, so that many resident memory
+ * images add nothing for the garbage collector to scan or copy. Storages can be carved from a
+ * shared {@link Slab}, which avoids the overhead of a direct buffer per storage. Values are
+ * truncated to 8 bits when they are written, as in {@link PackedStorage}.
+ */
+public class OffHeapStorage extends AbstractStorage {
+
+  /**
+   * A block of off-heap memory to carve storages from. The block is freed when the slab and all
+   * storages carved from it are unreachable.
+   */
+  public static final class Slab {
+
+    private final ByteBuffer block;
+
+    /**
+     * Allocate a block of off-heap memory.
+     *
+     * @param capacity The size of the block in bytes, i.e. the total size of the storages it can
+     *     hold.
+     */
+    public Slab(int capacity) {
+      this.block = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /** Carve a zeroed storage from the block. Safe to call from any thread. */
+    public synchronized OffHeapStorage allocate(int size) {
+      if (size > block.remaining()) {
+        throw new IllegalStateException(
+            "Slab is full: " + size + " bytes requested, " + block.remaining() + " remaining");
+      }
+      ByteBuffer buffer = block.slice(block.position(), size);
+      block.position(block.position() + size);
+      return new OffHeapStorage(buffer);
+    }
+
+    /** Get the number of bytes left in the block. */
+    public synchronized int remaining() {
+      return block.remaining();
+    }
+  }
+
+  private final ByteBuffer buffer;
+
+  /** Create a storage with a direct buffer of its own. */
+  public OffHeapStorage(int size) {
+    this(ByteBuffer.allocateDirect(size));
+  }
+
+  private OffHeapStorage(ByteBuffer buffer) {
+    super(buffer.capacity(), MEMORY_SALT);
+    this.buffer = buffer;
+  }
+
+  @Override
+  protected int load(int address) {
+    return buffer.get(address);
+  }
+
+  @Override
+  protected void save(int address, int value) {
+    buffer.put(address, (byte) value);
+  }
+}
@@ -0,0 +1,39 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Storage that keeps every cell in a {@code byte}, a quarter of the size of {@link ByteStorage}.
+ * Meant for keeping many memory images resident, e.g. the submissions of a {@link BatchRunner}.
+ * Values are truncated to 8 bits when they are written, so {@link #getRawValueAt} gives the signed
+ * byte, e.g. -12 after setting -12 or 244.
+ */
+public class PackedStorage extends AbstractStorage {
+
+  private final byte[] store;
+
+  public PackedStorage(int size) {
+    super(size, MEMORY_SALT);
+    store = new byte[size];
+  }
+
+  @Override
+  protected int load(int address) {
+    return store[address];
+  }
+
+  @Override
+  protected void save(int address, int value) {
+    store[address] = (byte) value;
+  }
+
+  @Override
+  protected void copyWithin(int from, int to, int length) {
+    System.arraycopy(store, from, store, to, length);
+  }
+
+  @Override
+  protected void fill(int from, int to, int value) {
+    Arrays.fill(store, from, to, (byte) value);
+  }
+}
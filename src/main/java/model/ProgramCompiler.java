@@ -0,0 +1,487 @@
+package model;
+
+import static model.ClassFileWriter.ACC_PRIVATE;
+import static model.ClassFileWriter.ACC_PUBLIC;
+import static model.ClassFileWriter.ACC_STATIC;
+import static model.ClassFileWriter.ALOAD;
+import static model.ClassFileWriter.ASTORE;
+import static model.ClassFileWriter.ATHROW;
+import static model.ClassFileWriter.BALOAD;
+import static model.ClassFileWriter.GETFIELD;
+import static model.ClassFileWriter.GOTO;
+import static model.ClassFileWriter.IADD;
+import static model.ClassFileWriter.IALOAD;
+import static model.ClassFileWriter.IAND;
+import static model.ClassFileWriter.IFEQ;
+import static model.ClassFileWriter.IF_ICMPEQ;
+import static model.ClassFileWriter.IF_ICMPGE;
+import static model.ClassFileWriter.IF_ICMPGT;
+import static model.ClassFileWriter.IF_ICMPLE;
+import static model.ClassFileWriter.IF_ICMPLT;
+import static model.ClassFileWriter.IF_ICMPNE;
+import static model.ClassFileWriter.ILOAD;
+import static model.ClassFileWriter.INVOKESPECIAL;
+import static model.ClassFileWriter.INVOKESTATIC;
+import static model.ClassFileWriter.INVOKEVIRTUAL;
+import static model.ClassFileWriter.IRETURN;
+import static model.ClassFileWriter.ISTORE;
+import static model.ClassFileWriter.ISUB;
+import static model.ClassFileWriter.IUSHR;
+import static model.ClassFileWriter.IXOR;
+import static model.ClassFileWriter.PUTFIELD;
+import static model.ClassFileWriter.RETURN;
+
+import instruction.CJp;
+import instruction.InstructionFactory;
+import model.ClassFileWriter.Code;
+import model.ClassFileWriter.Label;
+
+/**
+ * Compiles a memory image to a JVM class, which implements {@link BytecodeEngine.Program}. Since
+ * any address may be the target of a jump, every address is compiled as the start of an
+ * instruction. The class has a method for each chunk of {@link #CHUNK_SIZE} addresses, with a
+ * {@code tableswitch} on the program counter and straight-line code for each instruction. Chunks
+ * keep the methods small enough to be compiled by the JIT.
+ *
+ * <p>Each instruction first checks that its bytes have not been written since the image was
+ * compiled, and stops otherwise. Instructions that cannot be compiled exactly, see {@link
+ * BlockEngine}, also stop. The engine then executes the instruction with the interpreter. The
+ * budget is checked whenever a chunk is entered or a jump is taken: at least a chunk's worth of
+ * steps must remain, since straight-line code cannot leave a chunk without passing a check.
+ */
+final class ProgramCompiler {
+
+  private static final int CHUNK_BITS = 5;
+  static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+  private static final String CLASS_NAME = "model/CompiledProgram";
+  private static final String ENGINE = "model/BytecodeEngine";
+  private static final String ENGINE_DESC = "L" + ENGINE + ";";
+  private static final String PROGRAM = "model/BytecodeEngine$Program";
+  private static final String CHUNK_DESC = "(" + ENGINE_DESC + "I)I";
+
+  private static final int OP1 = Registry.IDX_OP1;
+  private static final int OP2 = Registry.IDX_OP2;
+  private static final int RES = Registry.IDX_RES;
+  private static final int OUT = Registry.IDX_OUT;
+
+  // Local variables of the chunk methods
+  private static final int ENGINE_VAR = 0;
+  private static final int PC_VAR = 1;
+  private static final int MEM_VAR = 2;
+  private static final int REG_VAR = 3;
+  private static final int VALID_VAR = 4;
+  private static final int STEPS_VAR = 5;
+  private static final int FAIL_PC_VAR = 6;
+  private static final int YIELD_VAR = 7;
+  private static final int BUDGET_VAR = 8;
+  private static final int LOCALS = 9;
+  private static final int MAX_STACK = 6;
+
+  private final int[] image;
+  private final ClassFileWriter writer;
+
+  // Per chunk
+  private Code code;
+  private Label dispatch;
+  private Label leave;
+  private Label stop;
+
+  private ProgramCompiler(int[] image) {
+    this.image = image;
+    this.writer = new ClassFileWriter(CLASS_NAME, "java/lang/Object", PROGRAM);
+  }
+
+  /**
+   * Compile a memory image.
+   *
+   * @param image The 8-bit values of the memory.
+   * @return The class file of the program.
+   */
+  static byte[] compile(int[] image) {
+    return new ProgramCompiler(image).compile();
+  }
+
+  private byte[] compile() {
+    Code init = writer.method(ACC_PUBLIC, "<init>", "()V");
+    init.local(ALOAD, 0);
+    init.invoke(INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+    init.op(RETURN);
+    init.end(1, 1);
+
+    int chunks = (image.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    Code run = writer.method(ACC_PUBLIC, "run", CHUNK_DESC);
+    Label outside = new Label();
+    Label[] targets = new Label[chunks];
+    run.local(ILOAD, 2);
+    run.push(CHUNK_BITS);
+    run.op(IUSHR);
+    for (int i = 0; i < chunks; i++) {
+      targets[i] = new Label();
+    }
+    run.tableswitch(0, outside, targets);
+    for (int i = 0; i < chunks; i++) {
+      run.mark(targets[i]);
+      run.local(ALOAD, 1);
+      run.local(ILOAD, 2);
+      run.invoke(INVOKESTATIC, CLASS_NAME, "chunk" + i, CHUNK_DESC);
+      run.op(IRETURN);
+    }
+    run.mark(outside); // Outside of memory, so stop and let the interpreter fail
+    run.local(ILOAD, 2);
+    run.push(-1);
+    run.op(IXOR);
+    run.op(IRETURN);
+    run.end(3, 3);
+
+    for (int i = 0; i < chunks; i++) {
+      compileChunk(i);
+    }
+    return writer.toByteArray();
+  }
+
+  private void compileChunk(int chunk) {
+    int base = chunk * CHUNK_SIZE;
+    int size = Math.min(CHUNK_SIZE, image.length - base);
+    code = writer.method(ACC_PRIVATE | ACC_STATIC, "chunk" + chunk, CHUNK_DESC);
+    dispatch = new Label();
+    leave = new Label();
+    stop = new Label();
+
+    loadField("mem", "[I", MEM_VAR, ASTORE);
+    loadField("reg", "[I", REG_VAR, ASTORE);
+    loadField("valid", "[Z", VALID_VAR, ASTORE);
+    loadField("steps", "I", STEPS_VAR, ISTORE);
+    loadField("budget", "I", BUDGET_VAR, ISTORE);
+    loadField("yieldAtJumps", "Z", YIELD_VAR, ISTORE);
+    code.local(ILOAD, PC_VAR);
+    code.local(ISTORE, FAIL_PC_VAR);
+
+    Label tryStart = new Label();
+    Label tryEnd = new Label();
+    Label handler = new Label();
+    code.mark(tryStart);
+
+    // Stop unless a chunk's worth of steps remains, else switch to the instruction at the PC
+    Label[] cases = new Label[size];
+    for (int i = 0; i < size; i++) {
+      cases[i] = new Label();
+    }
+    code.mark(dispatch);
+    code.local(ILOAD, BUDGET_VAR);
+    code.local(ILOAD, STEPS_VAR);
+    code.op(ISUB);
+    code.push(CHUNK_SIZE);
+    code.jump(IF_ICMPLT, stop);
+    code.local(ILOAD, PC_VAR);
+    code.tableswitch(base, leave, cases);
+
+    Label[] stale = new Label[size];
+    for (int i = 0; i < size; i++) {
+      stale[i] = new Label();
+      code.mark(cases[i]);
+      compileInstruction(base + i, base, cases, stale[i]);
+    }
+
+    // Stop at an instruction that must be interpreted
+    for (int i = 0; i < size; i++) {
+      code.mark(stale[i]);
+      code.push(base + i);
+      code.local(ISTORE, PC_VAR);
+      code.jump(GOTO, stop);
+    }
+
+    // Leave the chunk, and continue in the chunk of the PC
+    code.mark(leave);
+    storeSteps();
+    code.local(ILOAD, PC_VAR);
+    code.op(IRETURN);
+
+    // Stop, and return the PC inverted
+    code.mark(stop);
+    storeSteps();
+    code.local(ILOAD, PC_VAR);
+    code.push(-1);
+    code.op(IXOR);
+    code.op(IRETURN);
+    code.mark(tryEnd);
+
+    // Tell the engine where the interpreter would have been when an instruction throws
+    code.mark(handler);
+    code.local(ALOAD, ENGINE_VAR);
+    code.local(ILOAD, FAIL_PC_VAR);
+    code.field(PUTFIELD, ENGINE, "failPc", "I");
+    storeSteps();
+    code.op(ATHROW);
+    code.handler(tryStart, tryEnd, handler, "java/lang/RuntimeException");
+
+    code.end(MAX_STACK, LOCALS);
+  }
+
+  private void compileInstruction(int address, int base, Label[] cases, Label stale) {
+    int instr = image[address];
+    int length = ExecutionEngine.instructionLength(instr);
+    int next = address + length;
+    if (next >= image.length || !emitOperation(address, instr, next, stale)) {
+      code.jump(GOTO, stale);
+      return;
+    }
+    if (continuesAtPc(instr)) {
+      return;
+    }
+    if (next >= base + cases.length) {
+      code.push(next);
+      code.local(ISTORE, PC_VAR);
+      code.jump(GOTO, leave);
+    } else if (length > 1) {
+      code.jump(GOTO, cases[next - base]);
+    }
+    // Else fall through to the next address
+  }
+
+  /** Check if an instruction always continues at the PC, rather than the next address. */
+  private static boolean continuesAtPc(int instr) {
+    switch (instr & 0xF0) {
+      case InstructionFactory.INST_JMP:
+      case InstructionFactory.INST_PRL:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Emit the code of an instruction, preceded by the check of its bytes. Jumps end by going to the
+   * target, and other instructions by counting the step.
+   *
+   * @return false if the instruction cannot be compiled.
+   */
+  private boolean emitOperation(int address, int instr, int next, Label stale) {
+    int operand = instr & 0x0F;
+    int arg = next - address == 2 ? image[address + 1] : 0;
+    int high = arg >> 4;
+    int low = arg & 0xF;
+    switch (instr & 0xF0) {
+      case InstructionFactory.INST_NOP:
+        checkValid(address, stale);
+        break;
+      case InstructionFactory.INST_ADD:
+      case InstructionFactory.INST_SUB:
+        checkValid(address, stale);
+        failAt(next);
+        code.local(ALOAD, ENGINE_VAR);
+        code.push(RES);
+        loadRegister(OP1);
+        loadRegister(OP2);
+        code.op((instr & 0xF0) == InstructionFactory.INST_ADD ? IADD : ISUB);
+        setRegister();
+        break;
+      case InstructionFactory.INST_INC:
+        if (!ExecutionEngine.isPlainRegister(operand)) {
+          return false;
+        }
+        checkValid(address, stale);
+        failAt(next);
+        code.local(ALOAD, ENGINE_VAR);
+        code.push(operand);
+        loadRegister(operand);
+        code.push(1);
+        code.op(IADD);
+        setRegister();
+        break;
+      case InstructionFactory.INST_CPY:
+        if (!ExecutionEngine.isPlainRegister(high) || !ExecutionEngine.isPlainRegister(low)) {
+          return false;
+        }
+        checkValid(address, stale);
+        failAt(next);
+        code.local(ALOAD, ENGINE_VAR);
+        code.push(low);
+        loadRegister(high);
+        setRegister();
+        if ((operand & 0x1) == 1) {
+          code.local(ALOAD, ENGINE_VAR);
+          code.push(high);
+          code.push(0);
+          setRegister();
+        }
+        break;
+      case InstructionFactory.INST_LOD:
+        if (!ExecutionEngine.isPlainRegister(operand)) {
+          return false;
+        }
+        checkValid(address, stale);
+        failAt(next);
+        code.local(ALOAD, ENGINE_VAR);
+        code.push(operand);
+        code.push(arg);
+        setRegister();
+        break;
+      case InstructionFactory.INST_LDA:
+        if (!ExecutionEngine.isPlainRegister(high) || !ExecutionEngine.isPlainRegister(low)) {
+          return false;
+        }
+        checkValid(address, stale);
+        failAt(next);
+        code.local(ALOAD, ENGINE_VAR);
+        code.push(low);
+        code.local(ALOAD, MEM_VAR);
+        loadRegister(high);
+        code.op(IALOAD);
+        code.push(0xFF);
+        code.op(IAND);
+        setRegister();
+        break;
+      case InstructionFactory.INST_STO:
+        if (!ExecutionEngine.isPlainRegister(operand)) {
+          return false;
+        }
+        checkValid(address, stale);
+        failAt(next);
+        code.local(ALOAD, ENGINE_VAR);
+        code.push(arg);
+        loadRegister(operand);
+        code.invoke(INVOKEVIRTUAL, ENGINE, "store", "(II)V");
+        break;
+      case InstructionFactory.INST_STA:
+        if (!ExecutionEngine.isPlainRegister(high) || !ExecutionEngine.isPlainRegister(low)) {
+          return false;
+        }
+        checkValid(address, stale);
+        failAt(next);
+        code.local(ALOAD, ENGINE_VAR);
+        loadRegister(low);
+        loadRegister(high);
+        code.invoke(INVOKEVIRTUAL, ENGINE, "store", "(II)V");
+        break;
+      case InstructionFactory.INST_JMP:
+        if (!ExecutionEngine.isPlainRegister(operand)) {
+          return false;
+        }
+        checkValid(address, stale);
+        loadRegister(operand);
+        code.local(ISTORE, PC_VAR);
+        countJump(dispatch);
+        return true;
+      case InstructionFactory.INST_CJP:
+        if (!ExecutionEngine.isPlainRegister(high)
+            || !ExecutionEngine.isPlainRegister(low)
+            || comparison(operand) < 0) {
+          return false;
+        }
+        checkValid(address, stale);
+        Label taken = new Label();
+        Label notTaken = new Label();
+        loadRegister(high);
+        loadRegister(low);
+        code.jump(comparison(operand), taken);
+        code.push(next);
+        code.local(ISTORE, PC_VAR);
+        countJump(notTaken);
+        code.mark(taken);
+        loadRegister(RES);
+        code.local(ISTORE, PC_VAR);
+        countJump(dispatch);
+        code.mark(notTaken);
+        return true;
+      case InstructionFactory.INST_PRT:
+      case InstructionFactory.INST_PRD:
+        checkValid(address, stale);
+        failAt(next);
+        code.local(ALOAD, ENGINE_VAR);
+        loadRegister(OUT);
+        code.invoke(
+            INVOKEVIRTUAL,
+            ENGINE,
+            (instr & 0xF0) == InstructionFactory.INST_PRT ? "printChar" : "printInt",
+            "(I)V");
+        break;
+      case InstructionFactory.INST_PRL:
+        // Prints one character per step, and stays at the same address until done
+        checkValid(address, stale);
+        failAt(address);
+        code.local(ALOAD, ENGINE_VAR);
+        code.push(address);
+        code.invoke(INVOKEVIRTUAL, ENGINE, "printLoop", "(I)I");
+        code.local(ISTORE, PC_VAR);
+        code.iinc(STEPS_VAR, 1);
+        code.jump(GOTO, dispatch);
+        return true;
+      default:
+        return false; // HLT and unknown instructions
+    }
+    code.iinc(STEPS_VAR, 1);
+    return true;
+  }
+
+  /** Get the branch opcode that jumps when a CJP condition holds, or -1 if it is invalid. */
+  private static int comparison(int condition) {
+    switch (condition) {
+      case CJp.EQUAL:
+        return IF_ICMPEQ;
+      case CJp.NOT_EQUAL:
+        return IF_ICMPNE;
+      case CJp.LESS_THAN:
+        return IF_ICMPLT;
+      case CJp.GREATER_THAN:
+        return IF_ICMPGT;
+      case CJp.LESS_THAN_OR_EQUAL:
+        return IF_ICMPLE;
+      case CJp.GREATER_THAN_OR_EQUAL:
+        return IF_ICMPGE;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Count the step of a jump, taken or not, and continue unless the engine yields at jumps. The PC
+   * must already be set.
+   */
+  private void countJump(Label continuation) {
+    code.iinc(STEPS_VAR, 1);
+    code.local(ILOAD, YIELD_VAR);
+    code.jump(IFEQ, continuation);
+    code.local(ALOAD, ENGINE_VAR);
+    code.push(1);
+    code.field(PUTFIELD, ENGINE, "yielded", "Z");
+    code.jump(GOTO, stop);
+  }
+
+  private void checkValid(int address, Label stale) {
+    code.local(ALOAD, VALID_VAR);
+    code.push(address);
+    code.op(BALOAD);
+    code.jump(IFEQ, stale);
+  }
+
+  /** Set the PC that the interpreter would have if the instruction throws. */
+  private void failAt(int address) {
+    code.push(address);
+    code.local(ISTORE, FAIL_PC_VAR);
+  }
+
+  private void loadRegister(int idx) {
+    code.local(ALOAD, REG_VAR);
+    code.push(idx);
+    code.op(IALOAD);
+    code.push(0xFF);
+    code.op(IAND);
+  }
+
+  private void setRegister() {
+    code.invoke(INVOKEVIRTUAL, ENGINE, "setRegister", "(II)V");
+  }
+
+  private void loadField(String name, String descriptor, int var, int storeOpcode) {
+    code.local(ALOAD, ENGINE_VAR);
+    code.field(GETFIELD, ENGINE, name, descriptor);
+    code.local(storeOpcode, var);
+  }
+
+  private void storeSteps() {
+    code.local(ALOAD, ENGINE_VAR);
+    code.local(ILOAD, STEPS_VAR);
+    code.field(PUTFIELD, ENGINE, "steps", "I");
+  }
+}
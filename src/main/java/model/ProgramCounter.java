@@ -1,7 +1,6 @@
 package model;
 
-import java.util.HashSet;
-import java.util.Set;
+import util.ListenerList;
 
 public class ProgramCounter {
 
@@ -10,34 +9,40 @@ public class ProgramCounter {
   public static final int END_OF_MEMORY = -1;
 
   private final RegStorage registry;
-  private final Set<ProgramCounterListener> listeners;
+  private final ListenerList<ProgramCounterListener> listeners;
   private final int memorySize;
 
   private boolean isHalted;
+  private int haltReason;
+
+  // While detached, the index to report as the old one, and whether a halt is yet to be reported
+  private boolean detached;
+  private int detachedIdx;
+  private boolean haltPending;
 
   ProgramCounter(RegStorage registry, int memorySize) {
     this.registry = registry;
-    this.listeners = new HashSet<>();
+    this.listeners = new ListenerList<>();
     this.memorySize = memorySize;
     this.isHalted = false;
   }
 
   public int getCurrentIndex() {
-    return registry.getRegister(Registry.REG_PC);
+    return registry.getRegister(Registry.IDX_PC);
   }
 
   public void setCurrentIndex(int currentIndex) {
-    int oldIdx = registry.getRegister(Registry.REG_PC);
-    registry.setRegister(Registry.REG_PC, currentIndex);
+    int oldIdx = registry.getRegister(Registry.IDX_PC);
+    registry.setRegister(Registry.IDX_PC, currentIndex);
     notifyChanged(oldIdx, currentIndex);
   }
 
   public int next() {
-    int next = registry.getRegister(Registry.REG_PC);
+    int next = registry.getRegister(Registry.IDX_PC);
     if (next >= memorySize) {
       throw new IllegalStateException("Reached end of memory.");
     }
-    registry.setRegister(Registry.REG_PC, next + 1);
+    registry.setRegister(Registry.IDX_PC, next + 1);
     notifyChanged(next, next + 1);
 
     if (next == memorySize - 1) {
@@ -47,13 +52,14 @@ public class ProgramCounter {
   }
 
   public void jumpTo(int index) {
-    int oldIdx = registry.getRegister(Registry.REG_PC);
-    registry.setRegister(Registry.REG_PC, index);
+    int oldIdx = registry.getRegister(Registry.IDX_PC);
+    registry.setRegister(Registry.IDX_PC, index);
     notifyChanged(oldIdx, index);
   }
 
   public void halt(int reason) {
     isHalted = true;
+    haltReason = reason;
     notifyHalted(reason);
   }
 
@@ -61,10 +67,20 @@ public class ProgramCounter {
     return isHalted;
   }
 
+  /**
+   * Get the reason for the last halt, e.g. {@link #NORMAL_HALT} or {@link #END_OF_MEMORY}. Only
+   * meaningful while the program counter is halted.
+   */
+  public int getHaltReason() {
+    return haltReason;
+  }
+
   public void reset() {
-    int oldIdx = registry.getRegister(Registry.REG_PC);
-    registry.setRegister(Registry.REG_PC, 0);
+    int oldIdx = registry.getRegister(Registry.IDX_PC);
+    registry.setRegister(Registry.IDX_PC, 0);
     isHalted = false;
+    haltReason = NORMAL_HALT;
+    haltPending = false;
     notifyChanged(oldIdx, 0);
   }
 
@@ -72,15 +88,50 @@ public class ProgramCounter {
     listeners.add(listener);
   }
 
+  /** Time the listeners while they handle changes, see {@link ListenerList#setTimingHook}. */
+  public void setListenerTimingHook(ListenerList.TimingHook hook) {
+    listeners.setTimingHook(hook);
+  }
+
+  /**
+   * Stop notifying listeners until {@link #attachListeners()} is called. Changes and halts in
+   * between are reported as a single change, from the index at the time of detaching.
+   */
+  public void detachListeners() {
+    if (!detached) {
+      detached = true;
+      detachedIdx = registry.getRegister(Registry.IDX_PC);
+    }
+  }
+
+  /** Resume notifying listeners, and report what happened while detached. */
+  public void attachListeners() {
+    if (!detached) {
+      return;
+    }
+    detached = false;
+    int currentIdx = registry.getRegister(Registry.IDX_PC);
+    if (currentIdx != detachedIdx) {
+      notifyChanged(detachedIdx, currentIdx);
+    }
+    if (haltPending) {
+      haltPending = false;
+      notifyHalted(haltReason);
+    }
+  }
+
   private void notifyChanged(int oldIdx, int newIdx) {
-    for (ProgramCounterListener listener : listeners) {
-      listener.onProgramCounterChanged(oldIdx, newIdx);
+    if (detached) {
+      return;
     }
+    listeners.fire(ProgramCounterListener::onProgramCounterChanged, oldIdx, newIdx);
   }
 
   private void notifyHalted(int reason) {
-    for (ProgramCounterListener listener : listeners) {
-      listener.onProgramCounterHalted(reason);
+    if (detached) {
+      haltPending = true;
+      return;
     }
+    listeners.fire(ProgramCounterListener::onProgramCounterHalted, reason);
   }
 }
@@ -2,19 +2,26 @@ package model;
 
 public class RegStorage extends ByteStorage implements Registry {
 
+  /** Salt for the fingerprint keys of the registers, distinct from the memory salt. */
+  static final long REGISTER_SALT = 0xBB67AE8584CAA73BL;
+
   public RegStorage() {
-    super(Registry.NUM_REGISTERS);
+    this(WordWidth.NARROW);
+  }
+
+  /** Create the registers of a machine of a width. */
+  public RegStorage(WordWidth width) {
+    super(Registry.NUM_REGISTERS, REGISTER_SALT, width);
   }
 
   @Override
-  public int getRegister(String name) {
-    int value = getValueAt(Registry.nameToIdx(name));
-    return value & 0xFF;
+  public int getRegister(int idx) {
+    return getValueAt(idx);
   }
 
   @Override
-  public void setRegister(String name, int value) {
-    setValueAt(Registry.nameToIdx(name), value);
+  public void setRegister(int idx, int value) {
+    setValueAt(idx, value);
   }
 
   public int getRawValue(String name) {
@@ -17,9 +17,33 @@ public interface Registry extends ObservableStorage {
   };
   static final int NUM_REGISTERS = REGISTER_NAMES.length;
 
-  int getRegister(String name);
+  // Indices of the registers, in the order of REGISTER_NAMES
+  static final int IDX_R0 = 0;
+  static final int IDX_R1 = 1;
+  static final int IDX_R2 = 2;
+  static final int IDX_OP1 = 3;
+  static final int IDX_OP2 = 4;
+  static final int IDX_RES = 5;
+  static final int IDX_OUT = 6;
+  static final int IDX_PC = 7;
+
+  /** Get the masked value of a register, e.g. {@code getRegister(Registry.IDX_OP1)}. */
+  int getRegister(int idx);
+
+  void setRegister(int idx, int value);
+
+  /**
+   * Same as {@link #getRegister(int)}, by name. The name is looked up on every call, so this is
+   * meant for the UI rather than for executing instructions.
+   */
+  default int getRegister(String name) {
+    return getRegister(nameToIdx(name));
+  }
 
-  void setRegister(String name, int value);
+  /** Same as {@link #setRegister(int, int)}, by name. */
+  default void setRegister(String name, int value) {
+    setRegister(nameToIdx(name), value);
+  }
 
   static String idxToName(int idx) {
     if (idx >= 0 && idx < REGISTER_NAMES.length) return REGISTER_NAMES[idx];
@@ -0,0 +1,94 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits for a headless run of the CPU, see {@link CPU#run(RunOptions)}. The run stops when either
+ * limit is reached, whichever comes first.
+ *
+ * @param maxSteps The maximum number of instructions to execute.
+ * @param maxNanos The maximum wall-clock time of the run, in nanoseconds.
+ * @param detectLoops Whether to stop as soon as the program is proven to loop forever, i.e. when
+ *     the machine returns to a state it has already been in.
+ * @param engine The execution engine to run the program with.
+ * @param detached Whether to detach the listeners of the CPU during the run, so that they are only
+ *     notified of the final state, see {@link CPU#detachListeners()}.
+ * @param cancellation A flag that stops the run when it is set, from any thread, or null if the
+ *     run cannot be cancelled. The flag is checked between instructions, together with the
+ *     deadline.
+ */
+public record RunOptions(
+    long maxSteps,
+    long maxNanos,
+    boolean detectLoops,
+    Engine engine,
+    boolean detached,
+    AtomicBoolean cancellation) {
+
+  public static final long UNLIMITED = Long.MAX_VALUE;
+
+  /** Execution engines, which all give the same observable results. */
+  public enum Engine {
+    /** Decode and execute one instruction at a time. */
+    INTERPRETER,
+    /**
+     * Translate straight-line runs of instructions into cached blocks of operations, which are
+     * executed without decoding. Falls back to the interpreter if the memory is not a {@link
+     * ByteStorage}.
+     */
+    BLOCK,
+    /**
+     * Compile the whole memory to a JVM class, and run it. Instructions whose bytes have been
+     * written since compiling fall back to the interpreter. Has the largest start-up cost, but is
+     * the fastest for long runs. Falls back to the interpreter if the memory is not a {@link
+     * ByteStorage}.
+     */
+    COMPILED
+  }
+
+  public RunOptions {
+    if (maxSteps < 0) {
+      throw new IllegalArgumentException("Invalid step budget: " + maxSteps);
+    }
+    if (maxNanos < 0) {
+      throw new IllegalArgumentException("Invalid time budget: " + maxNanos);
+    }
+    if (engine == null) {
+      throw new IllegalArgumentException("Missing engine");
+    }
+  }
+
+  /** Options without any step or time limit. */
+  public static RunOptions unlimited() {
+    return new RunOptions(UNLIMITED, UNLIMITED, false, Engine.INTERPRETER, false, null);
+  }
+
+  public RunOptions withMaxSteps(long maxSteps) {
+    return new RunOptions(maxSteps, maxNanos, detectLoops, engine, detached, cancellation);
+  }
+
+  public RunOptions withMaxNanos(long maxNanos) {
+    return new RunOptions(maxSteps, maxNanos, detectLoops, engine, detached, cancellation);
+  }
+
+  public RunOptions withTimeout(long duration, TimeUnit unit) {
+    return withMaxNanos(unit.toNanos(duration));
+  }
+
+  public RunOptions withLoopDetection(boolean detectLoops) {
+    return new RunOptions(maxSteps, maxNanos, detectLoops, engine, detached, cancellation);
+  }
+
+  public RunOptions withEngine(Engine engine) {
+    return new RunOptions(maxSteps, maxNanos, detectLoops, engine, detached, cancellation);
+  }
+
+  public RunOptions withDetached(boolean detached) {
+    return new RunOptions(maxSteps, maxNanos, detectLoops, engine, detached, cancellation);
+  }
+
+  public RunOptions withCancellation(AtomicBoolean cancellation) {
+    return new RunOptions(maxSteps, maxNanos, detectLoops, engine, detached, cancellation);
+  }
+}
@@ -0,0 +1,67 @@
+package model;
+
+/**
+ * The outcome of a headless run of the CPU, see {@link CPU#run(RunOptions)}.
+ *
+ * @param reason Why the run stopped.
+ * @param steps The number of instructions executed during the run, including a failing one.
+ * @param elapsedNanos The wall-clock time of the run, in nanoseconds.
+ * @param cycleLength The length of the proven loop in steps, if the reason is {@link
+ *     Reason#INFINITE_LOOP}. Otherwise 0.
+ * @param error The exception thrown by the failing instruction, if the reason is {@link
+ *     Reason#ERROR}. Otherwise null.
+ */
+public record RunResult(
+    Reason reason, long steps, long elapsedNanos, long cycleLength, RuntimeException error) {
+
+  public enum Reason {
+    /** The program executed a halt instruction. */
+    HALTED,
+    /** The program counter moved past the last memory cell. */
+    END_OF_MEMORY,
+    /** The step budget was used up before the program halted. */
+    STEP_LIMIT,
+    /** The time budget was used up before the program halted. */
+    TIME_LIMIT,
+    /** The machine returned to an earlier state, which proves that the program never halts. */
+    INFINITE_LOOP,
+    /** The run was cancelled with {@link RunOptions#cancellation()}. */
+    CANCELLED,
+    /** An instruction failed, see {@link RunResult#error()}. */
+    ERROR
+  }
+
+  /**
+   * Check if the CPU halted during the run, either normally or by reaching the end of memory.
+   *
+   * @return True if the CPU is halted, false if the run was aborted.
+   */
+  public boolean isHalted() {
+    return reason == Reason.HALTED || reason == Reason.END_OF_MEMORY;
+  }
+
+  /** A human-readable description of the outcome. */
+  public String message() {
+    switch (reason) {
+      case HALTED:
+        return String.format("Program halted after %d steps.", steps);
+      case END_OF_MEMORY:
+        return String.format("Program reached end of memory after %d steps.", steps);
+      case STEP_LIMIT:
+        return String.format("Possible infinite loop detected. Aborted after %d steps.", steps);
+      case TIME_LIMIT:
+        return String.format(
+            "Time limit reached. Aborted after %d steps (%d ms).", steps, elapsedNanos / 1_000_000);
+      case INFINITE_LOOP:
+        return String.format(
+            "Proven infinite loop after %d steps, cycle length %d.", steps, cycleLength);
+      case CANCELLED:
+        return String.format("Cancelled after %d steps.", steps);
+      case ERROR:
+        return String.format(
+            "%s after %d steps: %s", error.getClass().getSimpleName(), steps, error.getMessage());
+      default:
+        throw new IllegalStateException("Unknown reason: " + reason);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs programs on virtual threads, one thread per program, so that thousands of submissions can
+ * be run concurrently without a platform thread each. Every program runs on a machine of its own,
+ * see {@link BatchRunner#run(BatchRunner.Job)}, within the step and time budget of its job.
+ *
+ * <p>Runs are never interrupted. A cancelled run stops at the next safepoint of the CPU, between
+ * two instructions, and completes normally with a {@link RunResult.Reason#CANCELLED} result, which
+ * tells the step and the program counter where it stopped.
+ */
+public class SandboxExecutor implements AutoCloseable {
+
+  /** A submitted program, which can be cancelled until its run has completed. */
+  public static final class Submission {
+
+    private final AtomicBoolean cancellation = new AtomicBoolean();
+    private final CompletableFuture<BatchRunner.Result> result = new CompletableFuture<>();
+
+    private Submission() {}
+
+    /** Stop the run at the next safepoint, or before it starts if it has not started yet. */
+    public void cancel() {
+      cancellation.set(true);
+    }
+
+    /** Get the result of the run, which completes when the program has stopped. */
+    public CompletableFuture<BatchRunner.Result> result() {
+      return result;
+    }
+  }
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  /** Start running a job on a virtual thread of its own. */
+  public Submission submit(BatchRunner.Job job) {
+    Submission submission = new Submission();
+    BatchRunner.Job cancellable =
+        job.withOptions(job.options().withCancellation(submission.cancellation));
+    executor.execute(
+        () -> {
+          try {
+            submission.result.complete(BatchRunner.run(cancellable));
+          } catch (Throwable ex) {
+            submission.result.completeExceptionally(ex);
+          }
+        });
+    return submission;
+  }
+
+  /** Submit all jobs, and start running them concurrently. */
+  public List<Submission> submitAll(List<BatchRunner.Job> jobs) {
+    return jobs.stream().map(this::submit).toList();
+  }
+
+  /** Wait for all submitted runs to complete, and stop accepting new ones. */
+  @Override
+  public void close() {
+    executor.close();
+  }
+}
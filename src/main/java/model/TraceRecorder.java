@@ -0,0 +1,177 @@
+package model;
+
+import instruction.InstructionFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the last executed instructions of a CPU, see {@link CPU#setTraceRecorder}. Every step is
+ * packed into a single {@code long} in a preallocated ring buffer, so recording does not allocate
+ * and the oldest steps are overwritten once the buffer is full.
+ *
+ * <p>Layout of an entry, from the least significant bit:
+ *
+ * <ul>
+ *   <li>0-7: the address of the instruction
+ *   <li>8-15: the instruction byte
+ *   <li>16-23: the operand byte, i.e. the value after the instruction, also for one-byte
+ *       instructions
+ *   <li>24-27: the index of the written register, other than the PC. If an instruction writes
+ *       several, e.g. MOV, the first, which is its destination
+ *   <li>28: whether a register was written
+ *   <li>29: whether a memory cell was written
+ *   <li>30: whether the instruction threw
+ *   <li>32-39: the new value of the written register
+ *   <li>40-47: the address of the written memory cell
+ *   <li>48-55: the new value of the written memory cell
+ * </ul>
+ */
+public final class TraceRecorder {
+
+  private static final long HAS_REGISTER = 1L << 28;
+  private static final long HAS_MEMORY = 1L << 29;
+  private static final long FAILED = 1L << 30;
+
+  private final long[] entries;
+  private long count;
+
+  /**
+   * Create a recorder of the last steps.
+   *
+   * @param capacity The number of steps to keep, e.g. {@code 1 << 20}.
+   */
+  public TraceRecorder(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    entries = new long[capacity];
+  }
+
+  /**
+   * Pack a step into an entry.
+   *
+   * @param register The index of the written register, or -1 if none was written.
+   * @param address The address of the written memory cell, or -1 if none was written.
+   */
+  static long pack(
+      int pc,
+      int instruction,
+      int operand,
+      int register,
+      int registerValue,
+      int address,
+      int memoryValue,
+      boolean failed) {
+    long entry = (pc & 0xFF) | (instruction & 0xFF) << 8 | (operand & 0xFF) << 16;
+    if (register >= 0) {
+      entry |= HAS_REGISTER | (register & 0xF) << 24 | (long) (registerValue & 0xFF) << 32;
+    }
+    if (address >= 0) {
+      entry |= HAS_MEMORY | (long) (address & 0xFF) << 40 | (long) (memoryValue & 0xFF) << 48;
+    }
+    if (failed) {
+      entry |= FAILED;
+    }
+    return entry;
+  }
+
+  void record(long entry) {
+    entries[(int) (count % entries.length)] = entry;
+    count++;
+  }
+
+  public int capacity() {
+    return entries.length;
+  }
+
+  /** Get the number of recorded steps, including those that have been overwritten. */
+  public long totalSteps() {
+    return count;
+  }
+
+  /**
+   * Get the last recorded entries, oldest first.
+   *
+   * @param steps The maximum number of entries to get.
+   * @return At most the number of kept entries.
+   */
+  public long[] last(int steps) {
+    int n = (int) Math.min(Math.min(steps, count), entries.length);
+    long[] result = new long[n];
+    for (int i = 0; i < n; i++) {
+      result[i] = entries[(int) ((count - n + i) % entries.length)];
+    }
+    return result;
+  }
+
+  /** Get the last recorded steps in a readable form, oldest first, see {@link #format(long)}. */
+  public List<String> lastSteps(int steps) {
+    List<String> lines = new ArrayList<>();
+    for (long entry : last(steps)) {
+      lines.add(format(entry));
+    }
+    return lines;
+  }
+
+  public void clear() {
+    count = 0;
+  }
+
+  public static int pc(long entry) {
+    return (int) entry & 0xFF;
+  }
+
+  public static int instruction(long entry) {
+    return (int) (entry >>> 8) & 0xFF;
+  }
+
+  public static int operand(long entry) {
+    return (int) (entry >>> 16) & 0xFF;
+  }
+
+  /** Get the index of the written register, or -1 if no register was written. */
+  public static int register(long entry) {
+    return (entry & HAS_REGISTER) != 0 ? (int) (entry >>> 24) & 0xF : -1;
+  }
+
+  public static int registerValue(long entry) {
+    return (int) (entry >>> 32) & 0xFF;
+  }
+
+  /** Get the address of the written memory cell, or -1 if no cell was written. */
+  public static int address(long entry) {
+    return (entry & HAS_MEMORY) != 0 ? (int) (entry >>> 40) & 0xFF : -1;
+  }
+
+  public static int memoryValue(long entry) {
+    return (int) (entry >>> 48) & 0xFF;
+  }
+
+  public static boolean failed(long entry) {
+    return (entry & FAILED) != 0;
+  }
+
+  /**
+   * Format an entry, with the address, the instruction and operand bytes, the instruction name and
+   * the changes, e.g. {@code "  4: 10 75 ADD  RES=12"} or {@code "  5: 75 14 ST   [20]=12"}.
+   */
+  public static String format(long entry) {
+    int instruction = instruction(entry);
+    String name = InstructionFactory.decode(instruction).toString();
+    StringBuilder text = new StringBuilder();
+    text.append(String.format("%3d: %02X %02X %-4s", pc(entry), instruction, operand(entry), name));
+    if (register(entry) >= 0) {
+      text.append(' ')
+          .append(Registry.idxToName(register(entry)))
+          .append('=')
+          .append(registerValue(entry));
+    }
+    if (address(entry) >= 0) {
+      text.append(" [").append(address(entry)).append("]=").append(memoryValue(entry));
+    }
+    if (failed(entry)) {
+      text.append(" (failed)");
+    }
+    return text.toString().stripTrailing();
+  }
+}
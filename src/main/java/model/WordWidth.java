@@ -0,0 +1,38 @@
+package model;
+
+/**
+ * Width of the cells of a storage, and so of the values and addresses of a machine. The default
+ * machine is {@link #NARROW}; a {@link #WIDE} machine runs the same instructions on 16-bit
+ * registers and cells, where the immediates of {@code LD} and {@code ST} are 16-bit and so
+ * address up to 64K cells. Instruction codes are always read from the low byte of a cell.
+ */
+public enum WordWidth {
+  NARROW(8),
+  WIDE(16);
+
+  private final int bits;
+
+  WordWidth(int bits) {
+    this.bits = bits;
+  }
+
+  /** Get the number of bits of a cell. */
+  public int bits() {
+    return bits;
+  }
+
+  /** Get the mask that a value is read through, e.g. {@code 0xFF} for 8-bit cells. */
+  public int mask() {
+    return (1 << bits) - 1;
+  }
+
+  /** Get the largest number of cells that can be addressed. */
+  public int maxCells() {
+    return 1 << bits;
+  }
+
+  /** Get the number of bytes of a cell in exports. */
+  public int bytesPerCell() {
+    return bits / 8;
+  }
+}
@@ -0,0 +1,169 @@
+package util;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Listeners of a model object, kept in a copy-on-write array. Listeners can be added and removed
+ * from any thread, e.g. by the EDT while the CPU runs on another, and an event is dispatched to the
+ * listeners of the array at the time, in the order they were added.
+ *
+ * <p>Dispatching does not allocate, as long as the event is given as a non-capturing lambda or
+ * method reference, with its arguments passed separately, e.g. {@code
+ * listeners.fire(Listener::onChanged, oldIdx, newIdx)}.
+ *
+ * @param <T> The listener type.
+ */
+public final class ListenerList<T> {
+
+  /** An event with two int arguments. */
+  public interface IntIntEvent<T> {
+    void fire(T listener, int a, int b);
+  }
+
+  /** An event with an int and an object argument. */
+  public interface IntObjEvent<T, A> {
+    void fire(T listener, int a, A b);
+  }
+
+  /** Told how long every listener took to handle an event, see {@link #setTimingHook}. */
+  public interface TimingHook {
+    void onListenerTimed(Object listener, long nanos);
+  }
+
+  private static final Object[] EMPTY = new Object[0];
+
+  private volatile Object[] listeners = EMPTY;
+  private volatile TimingHook timingHook;
+
+  /**
+   * Add a listener, unless it has already been added.
+   *
+   * @return Whether the listener was added.
+   */
+  public synchronized boolean add(T listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener must not be null");
+    }
+    if (indexOf(listener) >= 0) {
+      return false;
+    }
+    Object[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+    copy[copy.length - 1] = listener;
+    listeners = copy;
+    return true;
+  }
+
+  /**
+   * Remove a listener.
+   *
+   * @return Whether the listener had been added.
+   */
+  public synchronized boolean remove(T listener) {
+    int idx = indexOf(listener);
+    if (idx < 0) {
+      return false;
+    }
+    Object[] copy = new Object[listeners.length - 1];
+    System.arraycopy(listeners, 0, copy, 0, idx);
+    System.arraycopy(listeners, idx + 1, copy, idx, copy.length - idx);
+    listeners = copy;
+    return true;
+  }
+
+  private int indexOf(T listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i].equals(listener)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public boolean isEmpty() {
+    return listeners.length == 0;
+  }
+
+  public int size() {
+    return listeners.length;
+  }
+
+  /**
+   * Time every listener while it handles an event, e.g. to find a slow one. Timing costs two calls
+   * to {@link System#nanoTime()} per listener and event, so it should be off when not needed.
+   *
+   * @param timingHook The hook, or {@code null} to stop timing.
+   */
+  public void setTimingHook(TimingHook timingHook) {
+    this.timingHook = timingHook;
+  }
+
+  /** Fire an event with an int argument to all listeners. */
+  @SuppressWarnings("unchecked")
+  public void fire(ObjIntConsumer<? super T> event, int a) {
+    Object[] snapshot = listeners;
+    if (snapshot.length == 0) {
+      return;
+    }
+    TimingHook hook = timingHook;
+    for (Object listener : snapshot) {
+      long start = hook != null ? System.nanoTime() : 0;
+      event.accept((T) listener, a);
+      if (hook != null) {
+        hook.onListenerTimed(listener, System.nanoTime() - start);
+      }
+    }
+  }
+
+  /** Fire an event with an object argument to all listeners. */
+  @SuppressWarnings("unchecked")
+  public <A> void fire(BiConsumer<? super T, A> event, A a) {
+    Object[] snapshot = listeners;
+    if (snapshot.length == 0) {
+      return;
+    }
+    TimingHook hook = timingHook;
+    for (Object listener : snapshot) {
+      long start = hook != null ? System.nanoTime() : 0;
+      event.accept((T) listener, a);
+      if (hook != null) {
+        hook.onListenerTimed(listener, System.nanoTime() - start);
+      }
+    }
+  }
+
+  /** Fire an event with two int arguments to all listeners. */
+  @SuppressWarnings("unchecked")
+  public void fire(IntIntEvent<? super T> event, int a, int b) {
+    Object[] snapshot = listeners;
+    if (snapshot.length == 0) {
+      return;
+    }
+    TimingHook hook = timingHook;
+    for (Object listener : snapshot) {
+      long start = hook != null ? System.nanoTime() : 0;
+      event.fire((T) listener, a, b);
+      if (hook != null) {
+        hook.onListenerTimed(listener, System.nanoTime() - start);
+      }
+    }
+  }
+
+  /** Fire an event with an int and an object argument to all listeners. */
+  @SuppressWarnings("unchecked")
+  public <A> void fire(IntObjEvent<? super T, A> event, int a, A b) {
+    Object[] snapshot = listeners;
+    if (snapshot.length == 0) {
+      return;
+    }
+    TimingHook hook = timingHook;
+    for (Object listener : snapshot) {
+      long start = hook != null ? System.nanoTime() : 0;
+      event.fire((T) listener, a, b);
+      if (hook != null) {
+        hook.onListenerTimed(listener, System.nanoTime() - start);
+      }
+    }
+  }
+}
@@ -4,10 +4,18 @@ import com.google.gson.Gson;
 import java.beans.PropertyChangeSupport;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class Settings implements java.io.Serializable {
 
@@ -20,11 +28,27 @@ public class Settings implements java.io.Serializable {
   public static final String MOVE_CARET_AFTER_INPUT = "moveCaretAfterInput";
   public static final String CURRENT_FONT_SIZE = "currentFontSize";
 
+  /** Changes within this time of each other are written to the file at once, see #save(). */
+  public static final long SAVE_DELAY_MILLIS = 500;
+
   private static final transient String SETTINGS_FILE = "settings.json";
   private static final transient Gson gson = new Gson(); // Shared Gson instance
   private transient File settingsFile = null;
   private transient PropertyChangeSupport pcs;
 
+  // Writes the settings file in the background, so that setters on the EDT never wait for it
+  private static final transient ScheduledExecutorService saver =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "settings-saver");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private static final transient Object writeLock = new Object();
+
+  // The write that is scheduled but has not started, guarded by this
+  private transient ScheduledFuture<?> pendingSave;
+
   // Configurable settings
   private ExecutionSpeed executionSpeed;
   private boolean showHelpOnStartup;
@@ -102,16 +126,58 @@ public class Settings implements java.io.Serializable {
     }
   }
 
-  // Non-static method to save the current Settings instance to the settings.json file
-  public void save() {
+  /**
+   * Save the settings to the settings.json file, once no other change has been made for {@link
+   * #SAVE_DELAY_MILLIS}. The file is written on a background thread, so call {@link #flush()}
+   * before exiting.
+   */
+  public synchronized void save() {
     if (settingsFile == null) {
       return;
     }
-    try (FileWriter writer = new FileWriter(settingsFile)) {
-      // Serialize the current Settings instance to JSON and save it to the file
-      gson.toJson(this, writer);
-    } catch (IOException e) {
-      e.printStackTrace();
+    if (pendingSave != null) {
+      pendingSave.cancel(false);
+    }
+    pendingSave = saver.schedule(this::write, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /** Write any change that has not been saved yet, and wait for it to be written. */
+  public void flush() {
+    synchronized (this) {
+      if (pendingSave != null) {
+        pendingSave.cancel(false);
+      }
+    }
+    write(); // Also waits for a write that is in progress
+  }
+
+  /** Write the settings to a temporary file, and move it over the settings file. */
+  private void write() {
+    synchronized (writeLock) {
+      String json;
+      synchronized (this) {
+        if (pendingSave == null) {
+          return; // Already written
+        }
+        pendingSave = null;
+        json = gson.toJson(this);
+      }
+      Path target = settingsFile.toPath();
+      Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+      try {
+        Files.writeString(temp, json, StandardCharsets.UTF_8);
+        try {
+          Files.move(
+              temp,
+              target,
+              StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
     }
   }
 
@@ -0,0 +1,30 @@
+package util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the phases of startup, and logs how long after the start of the JVM each of them ended,
+ * e.g. "Startup: frame shown after 412 ms (+96 ms)". Off unless started with {@code
+ * -DstartupTiming=true}, which the Gradle run task uses.
+ */
+public final class StartupTimer {
+
+  private static final boolean ENABLED = Boolean.getBoolean("startupTiming");
+
+  private static final long JVM_START_MILLIS = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+  private static long lastMillis = JVM_START_MILLIS;
+
+  private StartupTimer() {}
+
+  /** Log the end of a phase, with the time since the JVM started and since the previous phase. */
+  public static synchronized void mark(String phase) {
+    if (!ENABLED) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    System.out.printf(
+        "Startup: %s after %d ms (+%d ms)%n", phase, now - JVM_START_MILLIS, now - lastMillis);
+    lastMillis = now;
+  }
+}
@@ -1,6 +1,15 @@
 package util;
 
+import java.io.PrintStream;
+import java.lang.StackWalker.StackFrame;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 import javax.swing.JComponent;
 import javax.swing.RepaintManager;
 import javax.swing.SwingUtilities;
@@ -9,15 +18,66 @@ import javax.swing.SwingUtilities;
  * A RepaintManager that is less forgiving than stock Swing. Detects Swing accesses not confined to
  * the EDT.
  *
+ * <p>Checking walks the stack of the calling thread, which is expensive when another thread
+ * triggers many repaints, so it can be done for every access, for a sample of all accesses, or not
+ * at all, see {@link Mode}. Violations are counted per call site, i.e. the first frame outside
+ * Swing and AWT, and reported on exit.
+ *
  * <p>Based on ideas from https://stackoverflow.com/a/17760977
  */
 public class ThreadConfinementChecker extends RepaintManager {
 
-  public static void install() {
-    RepaintManager.setCurrentManager(new ThreadConfinementChecker());
+  /** How accesses from other threads than the EDT are checked. */
+  public enum Mode {
+    /** Not checked, and the checker is not installed. */
+    OFF,
+    /** One in every sample rate accesses is checked, and violations are only counted. */
+    SAMPLED,
+    /** Every access is checked, and a violation throws a {@link SwingThreadingError}. */
+    FULL
   }
 
-  private static String[] safeThreadNames = {"Image Fetcher"};
+  /** Default number of accesses per checked access in {@link Mode#SAMPLED}. */
+  public static final int DEFAULT_SAMPLE_RATE = 64;
+
+  private static final String[] safeThreadNames = {"Image Fetcher"};
+
+  // Walks the stack lazily, so that a check can stop at the first frame that decides it
+  private static final StackWalker walker = StackWalker.getInstance();
+
+  // Returned by findViolation() when the call site is not on the stack
+  private static final String UNKNOWN_CALL_SITE = "(unknown)";
+
+  private final Mode mode;
+  private final int sampleRate;
+  private final AtomicLong accesses = new AtomicLong();
+  private final Map<String, LongAdder> violations = new ConcurrentHashMap<>();
+
+  private ThreadConfinementChecker(Mode mode, int sampleRate) {
+    this.mode = mode;
+    this.sampleRate = mode == Mode.FULL ? 1 : sampleRate;
+  }
+
+  /**
+   * Install a checker, unless the mode is {@link Mode#OFF}. The violations are printed to stderr
+   * when the JVM exits.
+   *
+   * @param sampleRate The number of accesses per checked access in {@link Mode#SAMPLED}.
+   * @return The checker, or null if none was installed.
+   */
+  public static ThreadConfinementChecker install(Mode mode, int sampleRate) {
+    if (sampleRate <= 0) {
+      throw new IllegalArgumentException("Invalid sample rate: " + sampleRate);
+    }
+    if (mode == Mode.OFF) {
+      return null;
+    }
+    ThreadConfinementChecker checker = new ThreadConfinementChecker(mode, sampleRate);
+    RepaintManager.setCurrentManager(checker);
+    Runtime.getRuntime()
+        .addShutdownHook(new Thread(() -> checker.printReport(System.err), "thread-check-report"));
+    return checker;
+  }
 
   @Override
   public synchronized void addInvalidComponent(JComponent component) {
@@ -31,59 +91,101 @@ public class ThreadConfinementChecker extends RepaintManager {
     super.addDirtyRegion(component, x, y, w, h);
   }
 
-  private static void check() {
+  /**
+   * Get the number of violations per call site. In {@link Mode#SAMPLED}, only the checked accesses
+   * are counted.
+   */
+  public Map<String, Long> getViolationCounts() {
+    Map<String, Long> counts = new TreeMap<>();
+    violations.forEach((site, count) -> counts.put(site, count.sum()));
+    return counts;
+  }
+
+  /** Print the violations per call site, if there are any. */
+  public void printReport(PrintStream out) {
+    Map<String, Long> counts = getViolationCounts();
+    if (counts.isEmpty()) {
+      return;
+    }
+    out.printf("Swing accessed from other threads than the EDT (%s checking):%n", mode);
+    counts.forEach((site, count) -> out.printf("  %6d  %s%n", count, site));
+  }
+
+  private void check() {
+    // Sample before anything else, since even finding out if this is the EDT takes a lock
+    if (sampleRate > 1 && accesses.getAndIncrement() % sampleRate != 0) {
+      return;
+    }
 
     // If the current thread is the EDT, all is fine.
     // Otherwise, we need to check more carefully.
 
-    if (!SwingUtilities.isEventDispatchThread()) {
-      // Allow certain system threads like which are known to be safe
-      for (String safeThreadName : safeThreadNames) {
-        if (Thread.currentThread().getName().contains(safeThreadName)) {
-          return;
-        }
+    if (SwingUtilities.isEventDispatchThread()) {
+      return;
+    }
+    // Allow certain system threads like which are known to be safe
+    for (String safeThreadName : safeThreadNames) {
+      if (Thread.currentThread().getName().contains(safeThreadName)) {
+        return;
       }
+    }
 
-      boolean repaintInvoked = false;
-      StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-      for (int i = 0; i < stackTrace.length; i++) {
-        if (repaintInvoked && stackTrace[i].getClassName().startsWith("javax.swing.")) {
-          // If repaint() was invoked from within Swing, we assume it was
-          // due to a modification of some kind. That would be an error.
-
-          // By default, the stack frame contains lots and lots of internal
-          // Swing calls, which don't really make us any wiser. To avoid this,
-          // we scan through the stack frame to the original Swing call, and
-          // cut the subsequent ones out.
-          while (i < stackTrace.length && stackTrace[i].getClassName().startsWith("javax.swing.")) {
-            i++;
-          }
-          throw new SwingThreadingError(Arrays.copyOfRange(stackTrace, i, stackTrace.length));
-        }
-        if (stackTrace[i].getMethodName().equals("repaint")) {
-          repaintInvoked = true;
-        }
-      }
+    String callSite = walker.walk(ThreadConfinementChecker::findViolation);
+    if (callSite == null) {
+      return;
+    }
+    violations.computeIfAbsent(callSite, site -> new LongAdder()).increment();
+    if (mode == Mode.FULL) {
+      throw new SwingThreadingError(callSite);
+    }
+  }
 
-      if (!repaintInvoked) {
-        // If repaint() was _not_ invoked, we got here because another
-        // Swing method was invoked. That is also presumed to be an error.
-        throw new SwingThreadingError();
+  /**
+   * Find the call site of a violation, walking the stack from the innermost frame up to the first
+   * frame outside Swing and AWT.
+   *
+   * <p>If repaint() was invoked from within Swing, we assume it was due to a modification of some
+   * kind, e.g. {@code setText()}. That would be an error. If repaint() was _not_ invoked, we got
+   * here because another Swing method was invoked. That is also presumed to be an error. Only a
+   * repaint() invoked by the call site itself is allowed.
+   *
+   * @return The call site, or null if there is no violation.
+   */
+  private static String findViolation(Stream<StackFrame> frames) {
+    boolean repaintInvoked = false;
+    boolean invokedFromSwing = false;
+    Iterator<StackFrame> it = frames.iterator();
+    while (it.hasNext()) {
+      StackFrame frame = it.next();
+      String className = frame.getClassName();
+      if (className.equals(ThreadConfinementChecker.class.getName())) {
+        continue;
+      }
+      if (frame.getMethodName().equals("repaint")) {
+        repaintInvoked = true;
+      } else if (className.startsWith("javax.swing.") || className.startsWith("java.awt.")) {
+        invokedFromSwing |= repaintInvoked;
+      } else {
+        return repaintInvoked && !invokedFromSwing ? null : frame.toStackTraceElement().toString();
       }
     }
+    return repaintInvoked && !invokedFromSwing ? null : UNKNOWN_CALL_SITE;
   }
-}
 
-// ===========================================================================
-
-class SwingThreadingError extends Error {
-  public SwingThreadingError() {
-    super("Swing accessed from thread '" + Thread.currentThread().getName() + "'");
-  }
+  // ===========================================================================
 
-  public SwingThreadingError(StackTraceElement[] stackTrace) {
-    super(
-        "Swing accessed from thread '" + Thread.currentThread().getName() + "'", null, false, true);
-    setStackTrace(stackTrace);
+  static class SwingThreadingError extends Error {
+    SwingThreadingError(String callSite) {
+      super("Swing accessed from thread '" + Thread.currentThread().getName() + "' at " + callSite);
+      // By default, the stack trace contains lots and lots of internal Swing calls, which don't
+      // really make us any wiser. To avoid this, we cut the trace at the call site.
+      StackTraceElement[] stackTrace = getStackTrace();
+      for (int i = 0; i < stackTrace.length; i++) {
+        if (stackTrace[i].toString().equals(callSite)) {
+          setStackTrace(Arrays.copyOfRange(stackTrace, i, stackTrace.length));
+          break;
+        }
+      }
+    }
   }
 }
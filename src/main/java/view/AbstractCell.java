@@ -2,14 +2,12 @@ package view;
 
 import static util.LazySwing.lbl;
 
-import instruction.InstructionFactory;
 import java.awt.Color;
 import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.HexFormat;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.JLabel;
@@ -17,7 +15,7 @@ import javax.swing.JPanel;
 import javax.swing.SwingConstants;
 import javax.swing.UIManager;
 import javax.swing.border.Border;
-import model.Memory;
+import model.MemoryReader;
 import model.Registry;
 import net.miginfocom.swing.MigLayout;
 
@@ -54,8 +52,6 @@ public abstract class AbstractCell {
   /** Highlight color for caret, when focus is lost. */
   private static final Color INACTIVE_CARET_BG_COLOR = new Color(150, 180, 160);
 
-  private static HexFormat hexFormat = HexFormat.of().withUpperCase();
-
   private JLabel lblIndex;
   private JLabel lblAddress;
   private JPanel bitPanel;
@@ -65,16 +61,16 @@ public abstract class AbstractCell {
   private JLabel lblAscii;
   private JLabel lblInstruction;
 
-  private InstructionFactory factory = new InstructionFactory();
-
+  // The value of the cell, which the labels show
   private int currentValue = 0;
 
   private CellValueListener valueListener;
 
   private final int index;
-  private final Memory mem;
+  private final MemoryReader mem;
   private final Registry reg;
-  private boolean showInstruction;
+  private final Disassembler disassembler;
+  private final AbstractSelecter cellSelecter;
 
   protected AbstractCell(
       Container parent,
@@ -83,14 +79,15 @@ public abstract class AbstractCell {
       String label,
       CellValueListener valueListener,
       AbstractSelecter cellSelecter,
-      Memory mem,
+      MemoryReader mem,
       Registry reg,
-      boolean showInstruction) {
+      Disassembler disassembler) {
 
     this.mem = mem;
     this.reg = reg;
     this.index = index;
-    this.showInstruction = showInstruction;
+    this.disassembler = disassembler;
+    this.cellSelecter = cellSelecter;
 
     this.valueListener = valueListener;
 
@@ -176,11 +173,11 @@ public abstract class AbstractCell {
     }
     bitPanel.add(Box.createRigidArea(new Dimension(2, 5)), "gap 0");
 
-    lblHex = lbl(hex(0), "mono");
+    lblHex = lbl(CellFormat.hex(0), "mono");
     lblHex.setBorder(null);
     parent.add(lblHex);
 
-    lblDec = lbl(pad(0), "mono");
+    lblDec = lbl(CellFormat.decimal(0), "mono");
     lblDec.setBorder(null);
     parent.add(lblDec);
 
@@ -188,62 +185,49 @@ public abstract class AbstractCell {
     lblAscii.setBorder(null);
     parent.add(lblAscii);
 
-    if (showInstruction) {
+    if (disassembler != null) {
       lblInstruction = lbl("", "mono hideable");
       lblInstruction.setBorder(null);
       parent.add(lblInstruction);
     }
 
-    updateValue();
+    render(0);
   }
 
   // Inform the rest of the UI that the value has changed
-  private void userChangedValue() {
-    updateValue();
+  private void userChangedValue(int value) {
+    if (cellSelecter != null && cellSelecter.isReadOnly()) {
+      return;
+    }
+    render(value);
     valueListener.onCellChanged(currentValue);
   }
 
-  void updateValue() {
-    int value = 0;
+  /** Show a value. Labels are only repainted if their text changes, e.g. a single bit. */
+  private void render(int value) {
+    value &= 0xFF;
     for (int i = 0; i < bits.length; i++) {
-      int b = bits[i].getText().equals("1") ? 1 : 0;
-      value |= b << (bits.length - i - 1);
+      bits[i].setText(CellFormat.bit(value, i));
     }
     currentValue = value;
-    lblHex.setText(hex(value));
-    lblDec.setText(pad(value));
-    // if value is a printable ascii charcter, display it
-    // (0-31 are control characters, 32-126 are printable ascii characters, 127 is DEL)
-    if (value >= 32 && value <= 126) lblAscii.setText(Character.toString((char) value));
-    else lblAscii.setText("--");
-    if (showInstruction) {
-      lblInstruction.setText(factory.createInstruction(value).prettyPrint(mem, reg, index));
-    }
+    lblHex.setText(CellFormat.hex(value));
+    lblDec.setText(CellFormat.decimal(value));
+    lblAscii.setText(CellFormat.ascii(value));
+    updateInstruction();
   }
 
-  private static String hex(int value) {
-    return hex(value, true);
-  }
-
-  private static String hex(int value, boolean prefix) {
-    String hexDigits = hexFormat.toHexDigits(value);
-    if (hexDigits.length() == 1) {
-      hexDigits = "0" + hexDigits;
-    } else if (hexDigits.length() > 2) {
-      hexDigits = hexDigits.substring(hexDigits.length() - 2);
+  void updateInstruction() {
+    if (disassembler != null) {
+      lblInstruction.setText(disassembler.disassemble(mem, reg, index, currentValue));
     }
-    return prefix ? "0x" + hexDigits : hexDigits;
   }
 
   static String pad(int value) {
-    return String.format("%03d", value);
+    return CellFormat.decimal(value);
   }
 
   public void setValue(int value, boolean isExecuting) {
-    for (int i = 0; i < 8; i++) {
-      bits[7 - i].setText(Integer.toString(((value >> i) & 1)));
-    }
-    updateValue();
+    render(value);
     if (isExecuting) {
       highlight();
     }
@@ -304,21 +288,26 @@ public abstract class AbstractCell {
   }
 
   public AbstractCell setBits(int start, int end, boolean value) {
+    int mask = 0;
     for (int i = start; i < end; i++) {
-      bits[i].setText(value ? "1" : "0");
+      mask |= bitMask(i);
     }
-    userChangedValue();
+    userChangedValue(value ? currentValue | mask : currentValue & ~mask);
     return this;
   }
 
   public void flipBit(int bitIdx) {
-    bits[bitIdx].setText(bits[bitIdx].getText().equals("1") ? "0" : "1");
-    userChangedValue();
+    userChangedValue(currentValue ^ bitMask(bitIdx));
   }
 
   public void setBit(int bitIdx, boolean value) {
-    bits[bitIdx].setText(value ? "1" : "0");
-    userChangedValue();
+    int mask = bitMask(bitIdx);
+    userChangedValue(value ? currentValue | mask : currentValue & ~mask);
+  }
+
+  // Bit 0 is the most significant
+  private int bitMask(int bitIdx) {
+    return 1 << (bits.length - 1 - bitIdx);
   }
 
   public void setProgramCounterFocus() {
@@ -23,6 +23,9 @@ public abstract class AbstractSelecter {
   // Whether the component has focus
   protected boolean active = false;
 
+  // Whether the cells may only be selected and copied, e.g. a bank that the machine does not see
+  private boolean readOnly = false;
+
   // The row and column of the caret
   protected int caretPosRow = 0;
   protected int caretPosCol = 0;
@@ -283,6 +286,14 @@ public abstract class AbstractSelecter {
     return mouseSelectingOngoing;
   }
 
+  public void setReadOnly(boolean readOnly) {
+    this.readOnly = readOnly;
+  }
+
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
   public void moveSelectionUp() {
     Range selection = getProperSelectionRange();
     if (selection.isAbove(1)) {
@@ -304,6 +315,9 @@ public abstract class AbstractSelecter {
   }
 
   public final void moveCellsUp() {
+    if (readOnly) {
+      return;
+    }
     if (selectStartRange == -1) {
       expandSelectionUp();
     }
@@ -319,6 +333,9 @@ public abstract class AbstractSelecter {
   }
 
   public final void moveCellsDown() {
+    if (readOnly) {
+      return;
+    }
     if (selectStartRange == -1) {
       expandSelectionDown();
     }
@@ -356,6 +373,9 @@ public abstract class AbstractSelecter {
   }
 
   public final void pasteSelection() {
+    if (readOnly) {
+      return;
+    }
     Transferable contents = clipboard.getContents(null);
     if (contents.isDataFlavorSupported(DataFlavor.stringFlavor)) {
       try {
@@ -439,6 +459,9 @@ public abstract class AbstractSelecter {
   }
 
   public void clearSelectedCells() {
+    if (readOnly) {
+      return;
+    }
     Range selection = getProperSelectionRange();
     if (selection.isValid()) {
       int[] zeros = new int[selection.length()];
@@ -449,6 +472,9 @@ public abstract class AbstractSelecter {
   }
 
   public void deleteSelectedCells() {
+    if (readOnly) {
+      return;
+    }
     Range selection = getProperSelectionRange();
     if (selection.isValid()) {
       deleteRange(selection);
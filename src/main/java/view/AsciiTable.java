@@ -93,7 +93,7 @@ public class AsciiTable extends AnchoredFrame {
       Color bgColor = getColorForAscii(asciiCode);
       String constraints = "growx";
       columnPanel.add(clbl(String.valueOf((char) asciiCode), true, bgColor), constraints);
-      columnPanel.add(rlbl(String.format("0x%02X", asciiCode), false, bgColor), constraints);
+      columnPanel.add(rlbl(CellFormat.hex(asciiCode), false, bgColor), constraints);
       columnPanel.add(rlbl(String.valueOf(asciiCode), false, bgColor), constraints);
       columnPanel.add(
           rlbl(Instruction.toBinaryString(asciiCode, 8, 4), false, bgColor), constraints);
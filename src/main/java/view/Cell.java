@@ -1,7 +1,7 @@
 package view;
 
 import java.awt.Container;
-import model.Memory;
+import model.MemoryReader;
 import model.Registry;
 
 public class Cell extends AbstractCell {
@@ -11,8 +11,9 @@ public class Cell extends AbstractCell {
       int index,
       CellValueListener valueListener,
       CellSelecter cellSelecter,
-      Memory mem,
-      Registry reg) {
-    super(parent, index, pad(index), null, valueListener, cellSelecter, mem, reg, true);
+      MemoryReader mem,
+      Registry reg,
+      Disassembler disassembler) {
+    super(parent, index, pad(index), null, valueListener, cellSelecter, mem, reg, disassembler);
   }
 }
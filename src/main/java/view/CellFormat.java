@@ -0,0 +1,45 @@
+package view;
+
+/**
+ * Tables of the texts of the 256 byte values, as shown in the cells: hex, zero-padded decimal and
+ * ASCII. The texts are built once, so that rendering a changed cell is a lookup.
+ */
+final class CellFormat {
+
+  private static final int VALUES = 256;
+
+  private static final String[] HEX = new String[VALUES];
+  private static final String[] DECIMAL = new String[VALUES];
+  private static final String[] ASCII = new String[VALUES];
+
+  static {
+    for (int value = 0; value < VALUES; value++) {
+      HEX[value] = String.format("0x%02X", value);
+      DECIMAL[value] = String.format("%03d", value);
+      // Printable ASCII characters are 32-126, 0-31 are control characters and 127 is DEL
+      ASCII[value] = value >= 32 && value <= 126 ? Character.toString((char) value) : "--";
+    }
+  }
+
+  private CellFormat() {}
+
+  /** Get a byte in hex, e.g. "0x41". */
+  static String hex(int value) {
+    return HEX[value & 0xFF];
+  }
+
+  /** Get a number as three decimal digits, e.g. "065". Larger numbers are not padded. */
+  static String decimal(int value) {
+    return value >= 0 && value < VALUES ? DECIMAL[value] : Integer.toString(value);
+  }
+
+  /** Get the ASCII character of a byte, or "--" if it is not printable. */
+  static String ascii(int value) {
+    return ASCII[value & 0xFF];
+  }
+
+  /** Get the digit of a bit of a byte, where bit 0 is the most significant. */
+  static String bit(int value, int bitIdx) {
+    return (value >> (7 - bitIdx) & 1) != 0 ? "1" : "0";
+  }
+}
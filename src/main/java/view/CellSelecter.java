@@ -1,6 +1,7 @@
 package view;
 
 import model.Memory;
+import model.MemoryReader;
 import util.Range;
 
 public class CellSelecter extends AbstractSelecter {
@@ -10,15 +11,19 @@ public class CellSelecter extends AbstractSelecter {
   }
 
   private final Memory memory;
+  // The cells as they are shown, which may be another bank of the memory, see ComputerUI
+  private final MemoryReader shownMemory;
   private final CarretScroller carretScroller;
 
   public CellSelecter(
       Memory memory,
+      MemoryReader shownMemory,
       SelectionPainter painter,
       FocusRequester focusRequester,
       CarretScroller carretScroller) {
     super(memory.size(), painter, focusRequester);
     this.memory = memory;
+    this.shownMemory = shownMemory;
     this.carretScroller = carretScroller;
   }
 
@@ -36,13 +41,19 @@ public class CellSelecter extends AbstractSelecter {
   // different class
 
   public void deleteSelection() {
-    if (selectStartRange != -1) {
+    if (selectStartRange != -1 && !isReadOnly()) {
       // Move all cells after the selection up by the size of the selection
       int size = selectEndRange - selectStartRange;
-      for (int i = 0; i < size; i++) {
-        int nextValue =
-            selectEndRange + i < memory.size() ? memory.getValueAt(selectEndRange + i) : 0;
-        memory.setValueAt(selectStartRange + i, nextValue);
+      // One change for the whole shift, rather than one per cell
+      memory.beginBatch();
+      try {
+        for (int i = 0; i < size; i++) {
+          int nextValue =
+              selectEndRange + i < memory.size() ? memory.getValueAt(selectEndRange + i) : 0;
+          memory.setValueAt(selectStartRange + i, nextValue);
+        }
+      } finally {
+        memory.commit();
       }
       selectEndRange = selectStartRange + 1;
     }
@@ -66,7 +77,7 @@ public class CellSelecter extends AbstractSelecter {
 
   @Override
   protected int[] getRangeDelegater(Range range) {
-    return memory.getValuesInRange(range);
+    return shownMemory.getValuesInRange(range);
   }
 
   @Override
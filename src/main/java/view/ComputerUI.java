@@ -1,7 +1,6 @@
 package view;
 
 import static util.LazySwing.action;
-import static util.LazySwing.colorToHex;
 import static util.LazySwing.inv;
 import static util.LazySwing.lbl;
 import static util.LazySwing.runSafely;
@@ -11,7 +10,6 @@ import instruction.InstructionFactory;
 import io.IOListener;
 import io.ObservableIO;
 import java.awt.AWTKeyStroke;
-import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
@@ -19,8 +17,8 @@ import java.awt.Insets;
 import java.awt.KeyboardFocusManager;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.IOException;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Executors;
@@ -34,8 +32,8 @@ import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.InputMap;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JComponent;
-import javax.swing.JEditorPane;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -43,22 +41,21 @@ import javax.swing.JPanel;
 import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
-import javax.swing.JTextPane;
 import javax.swing.KeyStroke;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.WindowConstants;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.Element;
-import javax.swing.text.ElementIterator;
-import javax.swing.text.html.HTMLDocument;
-import javax.swing.text.html.HTMLEditorKit;
+import model.BankedStorage;
 import model.CPU;
 import model.Memory;
+import model.MemoryReader;
 import model.ProgramCounter;
 import model.ProgramCounterListener;
 import model.Registry;
+import model.RunOptions;
+import model.RunResult;
 import net.miginfocom.swing.MigLayout;
 import util.ExecutionSpeed;
 import util.FileHandler;
@@ -66,6 +63,7 @@ import util.FileHandler.TitleSetter;
 import util.LazySwing;
 import util.Settings;
 import util.SizedLabel;
+import util.StartupTimer;
 import view.AbstractSelecter.FocusRequester;
 import view.AbstractSelecter.StorageType;
 import view.ComputerMenu.MenuCheckboxSetter;
@@ -73,39 +71,45 @@ import view.SnapshotDialog.Mode;
 
 public class ComputerUI implements FocusRequester {
 
-  private static final Color ERROR_HIGHLIGHT_COLOR = new Color(200, 55, 40);
-  private static final String ERROR_HIGHLIGHT_COLOR_STRING = colorToHex(ERROR_HIGHLIGHT_COLOR);
-  private static final Color INFO_HIGHLIGHT_COLOR = new Color(40, 55, 200);
-  private static final String INFO_HIGHLIGHT_COLOR_STRING = colorToHex(INFO_HIGHLIGHT_COLOR);
-
   private static final Dimension SCROLLER_SIZE = new Dimension(4500, 450);
 
-  private static final String EMPTY_HTML =
-      String.format(
-          "<html><head><style>"
-              + "body { color: black; } "
-              + ".error { color: '%s'; font-weight: bold; }"
-              + ".info { color: '%s'; font-weight: bold; }"
-              + "</style></head><body></body></html>",
-          ERROR_HIGHLIGHT_COLOR_STRING, INFO_HIGHLIGHT_COLOR_STRING);
-
   static ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
 
+  /** Budget for running a program at {@link ExecutionSpeed#INSTANT} speed. */
+  private static final RunOptions INSTANT_RUN_OPTIONS =
+      RunOptions.unlimited()
+          .withMaxSteps(100_000)
+          .withTimeout(5, TimeUnit.SECONDS)
+          .withLoopDetection(true)
+          .withDetached(true);
+
+  // Memory rows are built on demand, see #memCell(int), so that the frame can be shown as soon as
+  // the first rows exist. The rest are built in chunks once the frame is shown.
+  private static final int MEMORY_ROWS_PER_CHUNK = 32;
+
   private JFrame frame;
   private Cell[] memCells;
+  private int builtMemoryRows;
+  private Disassembler disassembler;
   private Register[] regCells;
 
   private JPanel memoryPanel;
   private JPanel memoryCellsPanel;
 
-  private JTextPane txtOutput;
+  private OutputConsole txtOutput;
   private JScrollPane scrollPane;
   private JPanel controlPanel;
 
   private InstructionHighlighter instructionHighlighter;
+  private final RenderScheduler renderScheduler;
   private AtomicBoolean isExecuting = new AtomicBoolean(false);
 
   private final Memory memory;
+  // The memory as the view shows it, which is a read-only view of a banked memory so that the
+  // user can page between its banks. Edits still go to the memory.
+  private final MemoryReader shownMemory;
+  private final BankedStorage.View bankView;
+  private JComboBox<String> bankSelector;
   private final ProgramCounter pc;
   private final CPU cpu;
   private final Registry registry;
@@ -118,10 +122,8 @@ public class ComputerUI implements FocusRequester {
   private InstructionTable instructionTable;
 
   private AbstractSelecter currentSelecter;
-  private AbstractCell[] currentCells;
 
   private FileHandler fileHandler;
-  private boolean newParagraph = true;
   private JPanel registerPanel;
 
   private InstructionFactory factory;
@@ -129,6 +131,8 @@ public class ComputerUI implements FocusRequester {
   private JScrollPane outputScroll;
   private JButton btnRun;
   private ScheduledFuture<?> executionTask;
+  // Stops the current run at INSTANT speed between two instructions
+  private AtomicBoolean runCancellation;
   private JButton btnStep;
   private JButton btnReset;
   private Settings settings;
@@ -136,30 +140,49 @@ public class ComputerUI implements FocusRequester {
 
   public ComputerUI(Memory memory, CPU cpu, ObservableIO io) {
     this.memory = memory;
+    this.bankView = memory instanceof BankedStorage banked ? banked.view() : null;
+    this.shownMemory = bankView != null ? bankView : memory;
     this.cpu = cpu;
     this.pc = cpu.getProgramCounter();
     this.registry = cpu.getRegistry();
     this.io = io;
     this.factory = new InstructionFactory();
     this.settings = Settings.loadFromFile();
+    StartupTimer.mark("settings loaded");
+    this.renderScheduler =
+        new RenderScheduler(
+            memory.size(),
+            Registry.NUM_REGISTERS,
+            new RenderScheduler.Renderer() {
+              @Override
+              public void renderFrame(BitSet memory, BitSet registers, int pc) {
+                renderChanges(memory, registers, pc);
+              }
+
+              @Override
+              public void renderHalt(int reason) {
+                renderProgramCounterHalted(reason);
+              }
+            });
 
     // Set Swings default font size
     UIManager.put("Label.font", new Font("Tahoma", Font.PLAIN, Settings.DEFAULT_FONT_SIZE));
 
     final SelectionPainter cellPainter =
         (address, isSelected, caretPos, active) ->
-            memCells[address].setSelected(isSelected, caretPos, active);
+            memCell(address).setSelected(isSelected, caretPos, active);
     final SelectionPainter regPainter =
         (address, isSelected, caretPos, active) ->
             regCells[address].setSelected(isSelected, caretPos, active);
     this.cellSelecter =
         new CellSelecter(
             memory,
+            shownMemory,
             cellPainter,
             this,
             idx -> {
               // This lambda is triggered when the caret is moved
-              memCells[idx].scrollTo(); // Scroll to the caret
+              memCell(idx).scrollTo(); // Scroll to the caret
               highlightInstructions(idx); // Highlight affected cells
             });
     this.regSelecter = new RegisterSelecter(registry, regPainter, this);
@@ -178,25 +201,88 @@ public class ComputerUI implements FocusRequester {
     instructionHighlighter.switchCells(memCells[0], memCells[0]);
 
     updateGlobalFontSize();
+    StartupTimer.mark("frame built");
 
     inv(
         () -> {
           frame.setLocationRelativeTo(null);
           frame.setVisible(true);
-
-          // Open additional windows if needed
-          if (settings.getShowAsciiTableOnStartup()) {
-            menu.triggerManuallyAsciiTable();
-          }
-          if (settings.getShowInstructionsOnStartup()) {
-            menu.triggerManuallyInstructions();
-          }
-          if (settings.getShowHelpOnStartup()) {
-            menu.triggerManuallyHelp();
-          }
+          StartupTimer.mark("frame shown");
+          SwingUtilities.invokeLater(this::buildNextMemoryChunk);
         });
   }
 
+  /**
+   * Build the next chunk of memory rows, in its own event so that the frame stays responsive, and
+   * open the additional windows once all rows are built.
+   */
+  private void buildNextMemoryChunk() {
+    if (builtMemoryRows < memCells.length) {
+      buildMemoryRows(builtMemoryRows + MEMORY_ROWS_PER_CHUNK);
+      SwingUtilities.invokeLater(this::buildNextMemoryChunk);
+      return;
+    }
+    StartupTimer.mark("memory view built");
+
+    // Open additional windows if needed, one per event
+    if (settings.getShowAsciiTableOnStartup()) {
+      SwingUtilities.invokeLater(menu::triggerManuallyAsciiTable);
+    }
+    if (settings.getShowInstructionsOnStartup()) {
+      SwingUtilities.invokeLater(menu::triggerManuallyInstructions);
+    }
+    if (settings.getShowHelpOnStartup()) {
+      SwingUtilities.invokeLater(menu::triggerManuallyHelp);
+    }
+    SwingUtilities.invokeLater(() -> StartupTimer.mark("additional windows opened"));
+  }
+
+  /** Get the cell of the caret row in the storage that has focus. */
+  private AbstractCell currentCell(int row) {
+    return currentSelecter == cellSelecter ? memCell(row) : regCells[row];
+  }
+
+  /** Get the cell of a memory address, building the rows up to it if needed. */
+  private Cell memCell(int address) {
+    buildMemoryRows(address + 1);
+    return memCells[address];
+  }
+
+  /** Build the memory rows up to a count, and the hidden header after the last one. */
+  private void buildMemoryRows(int count) {
+    count = Math.min(count, memCells.length);
+    if (count <= builtMemoryRows) {
+      return;
+    }
+    int firstComponent = memoryCellsPanel.getComponentCount();
+    for (int i = builtMemoryRows; i < count; i++) {
+      final int idx = i;
+      memCells[i] =
+          new Cell(
+              memoryCellsPanel,
+              i,
+              value -> memory.setValueAt(idx, value),
+              cellSelecter,
+              shownMemory,
+              registry,
+              disassembler);
+      memCells[i].setValue(shownMemory.getValueAt(i), false);
+    }
+    builtMemoryRows = count;
+    if (count == memCells.length) {
+      appendHeaderToCellPanel(memoryCellsPanel, null, null, false, true);
+    }
+
+    // Rows built after the font size was set need it too
+    if (frame.isDisplayable()) {
+      int fontSize = settings.getCurrentFontSize();
+      for (int i = firstComponent; i < memoryCellsPanel.getComponentCount(); i++) {
+        LazySwing.setComponentTreeFontSize(memoryCellsPanel.getComponent(i), fontSize);
+      }
+      memoryCellsPanel.revalidate();
+    }
+  }
+
   /** Initialize the contents of the frame. */
   private void initializeUI() {
     frame = new JFrame();
@@ -242,7 +328,8 @@ public class ComputerUI implements FocusRequester {
     frame.getContentPane().add(rigidArea, "cell 0 2");
 
     memoryPanel = createCellPanel(false);
-    appendHeaderToCellPanel(memoryPanel, "Memory", false, false);
+    bankSelector = bankView != null ? createBankSelector() : null;
+    appendHeaderToCellPanel(memoryPanel, "Memory", bankSelector, false, false);
     frame.getContentPane().add(memoryPanel, "cell 0 3 1 3, top, left, grow");
 
     // Memory cells
@@ -267,36 +354,13 @@ public class ComputerUI implements FocusRequester {
 
       memoryPanel.add(scrollPane, "span, top, left, grow, shrink, h 400px::");
 
+      // Only the rows that are visible at first are built before the frame is shown
       memCells = new Cell[memory.size()];
-      for (int i = 0; i < memory.size(); i++) {
-        final int idx = i;
-        memCells[i] =
-            new Cell(
-                memoryCellsPanel,
-                i,
-                value -> memory.setValueAt(idx, value),
-                cellSelecter,
-                memory,
-                registry);
-      }
+      disassembler = new Disassembler(memory.size());
+      buildMemoryRows(MEMORY_ROWS_PER_CHUNK);
 
       memory.addListener(
-          (startIdx, values) ->
-              inv(
-                  () -> {
-                    boolean executing = isExecuting.get();
-                    // Update the two preceding cells, without changing them, in case any of them
-                    // are an instruction that uses the modified one(s)
-                    if (startIdx > 0) memCells[startIdx - 1].updateValue();
-                    if (startIdx > 1) memCells[startIdx - 2].updateValue();
-
-                    // Update the modified cells
-                    for (int i = 0; i < values.length; i++) {
-                      memCells[startIdx + i].setValue(values[i], executing);
-                    }
-                  }));
-
-      appendHeaderToCellPanel(memoryCellsPanel, null, false, true);
+          (startIdx, values) -> renderScheduler.memoryChanged(startIdx, values.length));
     }
 
     // Vertical divider between memory and registers
@@ -305,7 +369,7 @@ public class ComputerUI implements FocusRequester {
     // Registers and program counter
     {
       registerPanel = createCellPanel(true);
-      appendHeaderToCellPanel(registerPanel, "Registers", true, false);
+      appendHeaderToCellPanel(registerPanel, "Registers", null, true, false);
       frame.getContentPane().add(registerPanel, "cell 2 3, top, left, grow, shrink");
 
       // Computer has 8 registers, OP1-OP3 and R1-R3, plus PRT and PC.
@@ -342,50 +406,16 @@ public class ComputerUI implements FocusRequester {
 
       {
         cpu.addRegistryListener(
-            (startIdx, values) ->
-                inv(
-                    () -> {
-                      boolean executing = isExecuting.get();
-                      for (int i = 0; i < values.length; i++) {
-                        regCells[startIdx + i].setValue(values[i], executing);
-                      }
-                    }));
+            (startIdx, values) -> renderScheduler.registersChanged(startIdx, values.length));
         pc.addListener(
             new ProgramCounterListener() {
               @Override
               public void onProgramCounterChanged(int oldIdx, int newIdx) {
-                inv(
-                    () -> {
-                      for (Cell c : memCells) {
-                        c.clearProgramCounterFocus();
-                      }
-                      for (Register r : regCells) {
-                        r.clearProgramCounterFocus();
-                      }
-
-                      boolean executing = isExecuting.get();
-                      pcCell.setValue(newIdx, executing);
-                      if (executing && !highlightInstructions(newIdx)) {
-                        instructionHighlighter.clearCells();
-                        pcCell.highlightError();
-                      }
-                    });
+                renderScheduler.programCounterChanged(newIdx);
               }
 
               public void onProgramCounterHalted(int haltReson) {
-                inv(
-                    () -> {
-                      pcCell.highlightCompleted();
-                      registerPanel.revalidate();
-                      registerPanel.repaint();
-                      if (haltReson == ProgramCounter.NORMAL_HALT) {
-                        appendInfo("Program execution completed.");
-                      } else if (haltReson == ProgramCounter.END_OF_MEMORY) {
-                        appendError("Program reached end of memory.");
-                      } else {
-                        appendError("Program halted due to an error.");
-                      }
-                    });
+                renderScheduler.programCounterHalted(haltReson);
               }
             });
       }
@@ -448,16 +478,11 @@ public class ComputerUI implements FocusRequester {
         btnClearOutput.addActionListener(e -> handleClearOutput());
         controlPanel.add(btnClearOutput, "cell 2 3 3 1, right");
 
-        txtOutput = new JTextPane();
-        txtOutput.setContentType("text/html");
-        txtOutput.setEditorKit(new HTMLEditorKit());
+        txtOutput = new OutputConsole(OutputConsole.DEFAULT_CAPACITY);
         txtOutput.setFocusable(true);
-        txtOutput.setEditable(false);
         txtOutput.setMargin(new Insets(0, 0, 0, 0));
         txtOutput.setFont(lblOutput.getFont());
         txtOutput.setBorder(null);
-        txtOutput.setText(EMPTY_HTML);
-        txtOutput.putClientProperty(JEditorPane.HONOR_DISPLAY_PROPERTIES, Boolean.TRUE);
         outputScroll =
             new JScrollPane(
                 txtOutput,
@@ -470,12 +495,17 @@ public class ComputerUI implements FocusRequester {
             new IOListener() {
               @Override
               public void print(int value) {
-                handlePrint(value, false);
+                txtOutput.printNumber(value);
               }
 
               @Override
               public void print(char character) {
-                handlePrint(character, true);
+                txtOutput.printChar(character);
+              }
+
+              @Override
+              public void print(CharSequence text) {
+                txtOutput.printText(text);
               }
             });
       }
@@ -679,12 +709,10 @@ public class ComputerUI implements FocusRequester {
       cellSelecter.setActive();
       regSelecter.setInactive();
       currentSelecter = cellSelecter;
-      currentCells = memCells;
     } else {
       cellSelecter.setInactive();
       regSelecter.setActive();
       currentSelecter = regSelecter;
-      currentCells = regCells;
     }
   }
 
@@ -770,10 +798,10 @@ public class ComputerUI implements FocusRequester {
   }
 
   void flipBit() {
-    if (currentSelecter.isMouseSelectingOngoing()) {
-      return; // Do not allow editing during selection
+    if (currentSelecter.isMouseSelectingOngoing() || currentSelecter.isReadOnly()) {
+      return; // Do not allow editing during selection, or of a bank that is only shown
     }
-    currentCells[currentSelecter.getCaretRow()].flipBit(currentSelecter.getCaretCol());
+    currentCell(currentSelecter.getCaretRow()).flipBit(currentSelecter.getCaretCol());
     if (settings.getMoveCaretAfterInput()) {
       currentSelecter.moveCaretRight();
     }
@@ -781,10 +809,10 @@ public class ComputerUI implements FocusRequester {
   }
 
   void setBit(boolean value) {
-    if (currentSelecter.isMouseSelectingOngoing()) {
-      return; // Do not allow editing during selection
+    if (currentSelecter.isMouseSelectingOngoing() || currentSelecter.isReadOnly()) {
+      return; // Do not allow editing during selection, or of a bank that is only shown
     }
-    currentCells[currentSelecter.getCaretRow()].setBit(currentSelecter.getCaretCol(), value);
+    currentCell(currentSelecter.getCaretRow()).setBit(currentSelecter.getCaretCol(), value);
     if (settings.getMoveCaretAfterInput()) {
       currentSelecter.moveCaretRight();
     }
@@ -794,12 +822,13 @@ public class ComputerUI implements FocusRequester {
   void handleStep() {
     if (isExecuting.get()) {
       if (executionTask != null) {
-        executionTask.cancel(true);
+        executionTask.cancel(false);
         isExecuting.set(false);
         toggleExecutionControls(false);
       }
       return;
     }
+    showCurrentBank();
     isExecuting.set(true);
     resetCellColors();
     executor.schedule(
@@ -818,6 +847,7 @@ public class ComputerUI implements FocusRequester {
 
   void handleRunAndStop() {
     if (!isExecuting.get()) {
+      showCurrentBank();
       toggleExecutionControls(true);
       isExecuting.set(true);
       resetCellColors();
@@ -827,11 +857,16 @@ public class ComputerUI implements FocusRequester {
         executionTask =
             executor.scheduleAtFixedRate(getStepper(), 0, speed.getDelay(), TimeUnit.MILLISECONDS);
       } else {
-        executionTask = executor.schedule(getRunner(), 0, TimeUnit.MILLISECONDS);
+        runCancellation = new AtomicBoolean();
+        executionTask = executor.schedule(getRunner(runCancellation), 0, TimeUnit.MILLISECONDS);
       }
     } else {
+      // Let a step in progress complete, rather than interrupting it
+      if (runCancellation != null) {
+        runCancellation.set(true);
+      }
       if (executionTask != null) {
-        executionTask.cancel(true);
+        executionTask.cancel(false);
       }
       isExecuting.set(false);
       toggleExecutionControls(false);
@@ -862,10 +897,17 @@ public class ComputerUI implements FocusRequester {
     };
   }
 
-  private Runnable getRunner() {
+  private Runnable getRunner(AtomicBoolean cancellation) {
     return () -> {
       try {
-        cpu.run();
+        RunResult result = cpu.run(INSTANT_RUN_OPTIONS.withCancellation(cancellation));
+        // Halts are reported by the program counter listener, and a run stopped by the user is
+        // silent, as a stopped run with a step delay is
+        if (result.reason() == RunResult.Reason.ERROR) {
+          inv(() -> appendError(result.error()));
+        } else if (!result.isHalted() && result.reason() != RunResult.Reason.CANCELLED) {
+          inv(() -> appendError(result.message()));
+        }
       } catch (Exception ex) {
         inv(() -> appendError(ex));
       } finally {
@@ -888,8 +930,11 @@ public class ComputerUI implements FocusRequester {
   }
 
   void handleResetState() {
-    pc.reset();
-    registry.reset();
+    inBatch(
+        () -> {
+          pc.reset();
+          registry.reset();
+        });
     resetCellColors(); // Removes all highlights
     cellSelecter.refreshCaret(); // Highlight cursors again
     regSelecter.refreshCaret();
@@ -897,7 +942,7 @@ public class ComputerUI implements FocusRequester {
   }
 
   void handleClearOutput() {
-    txtOutput.setText("");
+    txtOutput.clear();
     controlPanel.revalidate();
     controlPanel.repaint();
   }
@@ -912,13 +957,16 @@ public class ComputerUI implements FocusRequester {
             JOptionPane.WARNING_MESSAGE,
             JOptionPane.OK_CANCEL_OPTION);
     if (result == JOptionPane.OK_OPTION) {
-      cpu.reset();
-      memory.reset();
+      inBatch(
+          () -> {
+            cpu.reset();
+            memory.reset();
+          });
       runSafely(fileHandler::closeOpenedFile);
       cellSelecter.reset();
       regSelecter.reset();
       instructionHighlighter.clearCells();
-      memCells[0].scrollTo();
+      memCell(0).scrollTo();
       executor.schedule(
           () ->
               inv(
@@ -932,6 +980,12 @@ public class ComputerUI implements FocusRequester {
     }
   }
 
+  /** Exit once the settings that have not been saved yet are written. */
+  private void exit() {
+    settings.flush();
+    System.exit(0);
+  }
+
   void handleExit() {
     if (fileHandler.isModified()) {
       if (fileHandler.isFileOpened()) {
@@ -944,7 +998,7 @@ public class ComputerUI implements FocusRequester {
         if (result == JOptionPane.YES_OPTION) {
           runSafely(frame, () -> fileHandler.saveFile(getMemorySnapshot()));
         } else if (result == JOptionPane.NO_OPTION) {
-          System.exit(0);
+          exit();
         }
         // If the user chooses to cancel, do nothing.
       } else {
@@ -957,12 +1011,12 @@ public class ComputerUI implements FocusRequester {
         if (result == JOptionPane.YES_OPTION) {
           runSafely(frame, () -> fileHandler.saveFile(getMemorySnapshot()));
         } else if (result == JOptionPane.NO_OPTION) {
-          System.exit(0);
+          exit();
         }
         // If the user chooses to cancel, do nothing.
       }
     } else {
-      System.exit(0);
+      exit();
     }
   }
 
@@ -982,7 +1036,7 @@ public class ComputerUI implements FocusRequester {
     if (dialog.isConfirmed()) {
       String memorySnapshot = dialog.getText();
       try {
-        memory.importFromBase64(memorySnapshot);
+        inBatch(() -> memory.importFromBase64(memorySnapshot));
       } catch (IllegalArgumentException ex) {
         JOptionPane.showMessageDialog(
             frame,
@@ -1001,12 +1055,90 @@ public class ComputerUI implements FocusRequester {
     if (snapshot == null || snapshot.length == 0) {
       return;
     }
-    memory.importFromBinary(snapshot);
-    handleResetState();
+    inBatch(
+        () -> {
+          memory.importFromBinary(snapshot);
+          handleResetState();
+        });
+  }
+
+  /**
+   * Make changes to the memory and the registers as one transaction, so that the view is refreshed
+   * once for all of them.
+   */
+  private void inBatch(Runnable changes) {
+    memory.beginBatch();
+    registry.beginBatch();
+    try {
+      changes.run();
+    } finally {
+      registry.commit();
+      memory.commit();
+    }
   }
 
   // Private methods, used internally
 
+  /*
+   * Renders a frame of the render scheduler, with the current values of the
+   * cells that changed since the previous frame.
+   */
+  private void renderChanges(BitSet changedMemory, BitSet changedRegisters, int newPcIdx) {
+    boolean executing = isExecuting.get();
+
+    // A bank shown by number becomes editable when the program switches to it, and vice versa
+    if (bankView != null && changedMemory.get(BankedStorage.BANK_SELECT)) {
+      cellSelecter.setReadOnly(!bankView.showsVisibleBank());
+    }
+
+    // Update the modified cells. Rows that are not built yet show the current values once built.
+    for (int i = changedMemory.nextSetBit(0);
+        i >= 0 && i < builtMemoryRows;
+        i = changedMemory.nextSetBit(i + 1)) {
+      memCells[i].setValue(shownMemory.getValueAt(i), executing);
+    }
+
+    // Update the instructions that read a modified cell as their operand, without changing them
+    for (int i = changedMemory.nextSetBit(0);
+        i >= 0 && i < builtMemoryRows;
+        i = changedMemory.nextSetBit(i + 1)) {
+      int reader = disassembler.readerOf(i);
+      if (reader != Disassembler.NO_READER && !changedMemory.get(reader)) {
+        memCells[reader].updateInstruction();
+      }
+    }
+    for (int i = changedRegisters.nextSetBit(0); i >= 0; i = changedRegisters.nextSetBit(i + 1)) {
+      regCells[i].setValue(registry.getValueAt(i), executing);
+    }
+
+    if (newPcIdx != RenderScheduler.NO_CHANGE) {
+      Register pcCell = regCells[Registry.NUM_REGISTERS - 1];
+      pcCell.setValue(newPcIdx, executing);
+      if (!executing) {
+        instructionHighlighter.clearFocus();
+      } else if (bankView != null && !bankView.showsVisibleBank()) {
+        // The program counter runs in the visible bank, not in the shown one
+        instructionHighlighter.clearCells();
+      } else if (!highlightInstructions(newPcIdx)) {
+        instructionHighlighter.clearCells();
+        pcCell.highlightError();
+      }
+    }
+  }
+
+  private void renderProgramCounterHalted(int haltReason) {
+    regCells[Registry.NUM_REGISTERS - 1].highlightCompleted();
+    registerPanel.revalidate();
+    registerPanel.repaint();
+    if (haltReason == ProgramCounter.NORMAL_HALT) {
+      appendInfo("Program execution completed.");
+    } else if (haltReason == ProgramCounter.END_OF_MEMORY) {
+      appendError("Program reached end of memory.");
+    } else {
+      appendError("Program halted due to an error.");
+    }
+  }
+
   /*
    * Highlights the instruction at the specified memory cell, and any cell that
    * would be affected by executing that instruction.
@@ -1015,15 +1147,15 @@ public class ComputerUI implements FocusRequester {
     if (memIdx < 0 || memIdx >= memory.size()) {
       return false;
     }
-    Instruction instr = factory.createInstruction(memory.getValueAt(memIdx));
-    int[] affectedMemory = instr.getAffectedMemoryCells(memory, registry, memIdx);
-    int[] affectedRegisters = instr.getAffectedRegisters(memory, registry, memIdx);
+    Instruction instr = factory.createInstruction(shownMemory.getValueAt(memIdx));
+    int[] affectedMemory = instr.getAffectedMemoryCells(shownMemory, registry, memIdx);
+    int[] affectedRegisters = instr.getAffectedRegisters(shownMemory, registry, memIdx);
     AbstractCell[] cells =
         Stream.concat(
-                Arrays.stream(affectedMemory).mapToObj(i -> this.memCells[i]),
+                Arrays.stream(affectedMemory).mapToObj(this::memCell),
                 Arrays.stream(affectedRegisters).mapToObj(i -> this.regCells[i]))
             .toArray(AbstractCell[]::new);
-    AbstractCell pcCell = this.memCells[memIdx];
+    AbstractCell pcCell = memCell(memIdx);
     instructionHighlighter.switchCells(pcCell, cells);
     inv(
         () -> {
@@ -1038,7 +1170,7 @@ public class ComputerUI implements FocusRequester {
           if (scrollToIdx + additionalCells >= memory.size()) {
             additionalCells = memory.size() - scrollToIdx - 1;
           }
-          memCells[scrollToIdx].scrollTo(additionalCells);
+          memCell(scrollToIdx).scrollTo(additionalCells);
           memoryCellsPanel.revalidate();
           memoryCellsPanel.repaint();
           registerPanel.revalidate();
@@ -1048,96 +1180,24 @@ public class ComputerUI implements FocusRequester {
   }
 
   private void resetCellColors() {
-    for (Cell c : memCells) {
-      c.unhighlight();
+    for (int i = 0; i < builtMemoryRows; i++) {
+      memCells[i].unhighlight();
     }
     for (Register r : regCells) {
       r.unhighlight();
     }
   }
 
-  private void handlePrint(int value, boolean isAscii) {
-    if (isAscii) {
-      // Treat value as ASCII character and append to print label
-      char c = (char) (value & 0xFF);
-      if (c == '\n') {
-        newParagraph = true;
-      } else {
-        if (newParagraph) {
-          appendHtmlContent("<p>");
-          newParagraph = false;
-        }
-        appendStringContent(String.valueOf(c));
-      }
-    } else {
-      appendHtmlContent("<p>");
-      appendStringContent(String.valueOf(value));
-      newParagraph = true;
-    }
-  }
-
   private void appendError(Exception ex) {
-    newParagraph = true;
-    appendHtmlContent(
-        String.format(
-            "<p class='error'>%s<br>%s</p>", ex.getClass().getSimpleName(), ex.getMessage()));
+    txtOutput.appendError(ex);
   }
 
   private void appendError(String msg) {
-    newParagraph = true;
-    appendHtmlContent(String.format("<p class='error'>%s</p>", msg));
+    txtOutput.appendError(msg);
   }
 
   private void appendInfo(String msg) {
-    newParagraph = true;
-    appendHtmlContent(String.format("<p class='info'>%s</p>", msg));
-  }
-
-  // Helper method to append HTML content to the JTextPane.
-  private void appendHtmlContent(String htmlContent) {
-    inv(
-        () -> {
-          try {
-            HTMLDocument doc = (HTMLDocument) txtOutput.getDocument();
-            HTMLEditorKit editorKit = (HTMLEditorKit) txtOutput.getEditorKit();
-            editorKit.insertHTML(doc, doc.getLength(), htmlContent, 0, 0, null);
-          } catch (Exception e) {
-            e.printStackTrace();
-          }
-          controlPanel.revalidate();
-          controlPanel.repaint();
-        });
-  }
-
-  // Helper method to append HTML content to the JTextPane.
-  private void appendStringContent(final String content) {
-    inv(
-        () -> {
-          try {
-            HTMLDocument doc = (HTMLDocument) txtOutput.getDocument();
-            String transformed = content.equals(" ") ? "&nbsp;" : content;
-
-            // Find the last paragraph ('<p>') element.
-            ElementIterator iterator = new ElementIterator(doc);
-            Element elem;
-            Element lastParagraphElement = null;
-            while ((elem = iterator.next()) != null) {
-              if (elem.getName().equals("p")) {
-                lastParagraphElement = elem;
-              }
-            }
-
-            // Check if a last '<p>' was found and append the content to it.
-            if (lastParagraphElement != null) {
-              doc.insertBeforeEnd(lastParagraphElement, transformed);
-            }
-          } catch (BadLocationException | IOException e) {
-            e.printStackTrace();
-          }
-
-          controlPanel.revalidate();
-          controlPanel.repaint();
-        });
+    txtOutput.appendInfo(msg);
   }
 
   private JPanel createCellPanel(boolean isRegPanel) {
@@ -1156,10 +1216,15 @@ public class ComputerUI implements FocusRequester {
   }
 
   private JPanel appendHeaderToCellPanel(
-      JPanel cellPanel, String header, boolean isRegPanel, boolean hidden) {
+      JPanel cellPanel, String header, JComponent control, boolean isRegPanel, boolean hidden) {
     if (header != null) {
       JLabel lblHeader = new SizedLabel(header, 2, true);
-      cellPanel.add(lblHeader, "left, wrap, span 6");
+      if (control == null) {
+        cellPanel.add(lblHeader, "left, wrap, span 6");
+      } else {
+        cellPanel.add(lblHeader, "left, span 5");
+        cellPanel.add(control, "right, wrap");
+      }
 
       cellPanel.add(Box.createRigidArea(new Dimension(20, 10)), "wrap");
     }
@@ -1184,6 +1249,46 @@ public class ComputerUI implements FocusRequester {
     return cellPanel;
   }
 
+  /** Create the selector of the bank that the memory view shows, the current one by default. */
+  private JComboBox<String> createBankSelector() {
+    String[] items = new String[((BankedStorage) memory).getBankCount() + 1];
+    items[0] = "Current bank";
+    for (int i = 1; i < items.length; i++) {
+      items[i] = "Bank " + (i - 1);
+    }
+    JComboBox<String> selector = new JComboBox<>(items);
+    selector.setToolTipText("Show another bank without switching to it. It cannot be edited.");
+    // Keep the focus in the cells, where the key bindings are
+    selector.setFocusable(false);
+    selector.addActionListener(
+        e -> {
+          int index = selector.getSelectedIndex();
+          showBank(index == 0 ? BankedStorage.View.VISIBLE : index - 1);
+        });
+    return selector;
+  }
+
+  /**
+   * Show a bank in the memory view, or the current bank with {@link BankedStorage.View#VISIBLE}.
+   * The machine keeps its bank, and the cells of another bank are read-only.
+   */
+  private void showBank(int bank) {
+    bankView.showBank(bank);
+    cellSelecter.setReadOnly(!bankView.showsVisibleBank());
+    // Nothing has changed in the memory, so the rows re-read their cells rather than being told.
+    // Rows that are not built yet read the shown bank once built.
+    for (int i = 0; i < builtMemoryRows; i++) {
+      memCells[i].setValue(shownMemory.getValueAt(i), false);
+    }
+  }
+
+  /** Show the visible bank again, e.g. before running so that the program counter is shown. */
+  private void showCurrentBank() {
+    if (bankSelector != null && bankSelector.getSelectedIndex() != 0) {
+      bankSelector.setSelectedIndex(0); // Shows the bank through the action listener
+    }
+  }
+
   private JLabel header(String text, boolean hidden) {
     return header(text, hidden, SwingConstants.LEADING);
   }
@@ -0,0 +1,53 @@
+package view;
+
+import instruction.InstructionFactory;
+import java.util.Arrays;
+import model.MemoryReader;
+import model.Registry;
+
+/**
+ * Disassembly of the memory cells, for the instruction column. The text of an instruction only
+ * depends on its code and, for instructions of two cells, on the operand in the next cell, so texts
+ * are cached by (code, operand) and repeated values are not formatted again.
+ *
+ * <p>It also keeps a map from each address to the cell whose text reads it as an operand, updated
+ * whenever a cell is disassembled, so that a write re-renders exactly the affected cells.
+ */
+final class Disassembler {
+
+  /** Returned by {@link #readerOf(int)} when no instruction reads an address as its operand. */
+  static final int NO_READER = -1;
+
+  private final InstructionFactory factory = new InstructionFactory();
+  private final String[] texts = new String[256 * 256];
+  private final int[] readers;
+
+  Disassembler(int size) {
+    readers = new int[size];
+    Arrays.fill(readers, NO_READER);
+  }
+
+  /** Get the text of the instruction with a code at an address. */
+  String disassemble(MemoryReader mem, Registry reg, int address, int code) {
+    code &= 0xFF;
+    boolean readsOperand = InstructionFactory.instructionLength(code) == 2;
+    if (address + 1 >= mem.size()) {
+      // The operand is missing, which only happens once, so the text is not cached
+      return factory.createInstruction(code).prettyPrint(mem, reg, address);
+    }
+    readers[address + 1] = readsOperand ? address : NO_READER;
+    int operand = readsOperand ? mem.getValueAt(address + 1) & 0xFF : 0;
+    int key = code << 8 | operand;
+    String text = texts[key];
+    if (text == null) {
+      text = factory.createInstruction(code).prettyPrint(mem, reg, address);
+      texts[key] = text;
+    }
+    return text;
+  }
+
+  /** Get the address of the cell whose text reads an address as its operand, or NO_READER. */
+  int readerOf(int address) {
+    return readers[address];
+  }
+}
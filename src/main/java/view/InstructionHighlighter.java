@@ -61,6 +61,14 @@ public class InstructionHighlighter {
     switchCells(null);
   }
 
+  /** Clear the focus cell, but keep the highlighted cells. */
+  public void clearFocus() {
+    if (pcFocusCell != null) {
+      loseFocusConsumer.accept(pcFocusCell);
+      pcFocusCell = null;
+    }
+  }
+
   public boolean isAffected(AbstractCell... cellsToCheck) {
     if (cellsToCheck == null || cellsToCheck.length == 0 || memoryCells.length == 0) {
       return false;
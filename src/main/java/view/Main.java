@@ -2,25 +2,48 @@ package view;
 
 import instruction.InstructionFactory;
 import io.IOModule;
+import java.util.Locale;
 import javax.swing.SwingUtilities;
+import model.BankedStorage;
 import model.ByteStorage;
 import model.CPU;
+import model.Memory;
 import util.LookAndFeelUtils;
+import util.StartupTimer;
 import util.ThreadConfinementChecker;
 
 public class Main {
 
   private static final int NUM_MEMORY_CELLS = 256; // 256 is the maximum number of memory cells!
 
+  // Slots of the output buffer, which the EDT drains in chunks, see IOModule
+  private static final int OUTPUT_BUFFER_SLOTS = 4096;
+
+  // Number of memory banks, e.g. -Dbanks=4, see BankedStorage. The lower half of the memory is
+  // common to all banks.
+  private static final int NUM_BANKS = Integer.getInteger("banks", 1);
+
+  // Checking that Swing is only used from the EDT: off, sampled or full, e.g. -DthreadCheck=full,
+  // which the Gradle run task uses. See ThreadConfinementChecker.
+  private static final String THREAD_CHECK = System.getProperty("threadCheck", "off");
+  private static final int THREAD_CHECK_SAMPLE_RATE =
+      Integer.getInteger("threadCheck.sampleRate", ThreadConfinementChecker.DEFAULT_SAMPLE_RATE);
+
   public static void main(String[] args) {
     // Install custom RepaintManager to detect Swing threading issues
-    ThreadConfinementChecker.install();
+    ThreadConfinementChecker.install(
+        ThreadConfinementChecker.Mode.valueOf(THREAD_CHECK.toUpperCase(Locale.ROOT)),
+        THREAD_CHECK_SAMPLE_RATE);
     LookAndFeelUtils.setPlatformSpecificLookAndFeel();
 
     // Create the model
-    ByteStorage memory = new ByteStorage(NUM_MEMORY_CELLS);
-    IOModule io = new IOModule();
+    Memory memory =
+        NUM_BANKS > 1
+            ? new BankedStorage(NUM_BANKS, NUM_MEMORY_CELLS / 2)
+            : new ByteStorage(NUM_MEMORY_CELLS);
+    IOModule io = new IOModule(OUTPUT_BUFFER_SLOTS, SwingUtilities::invokeLater);
     CPU cpu = new CPU(memory, new InstructionFactory(), io);
+    StartupTimer.mark("model created");
 
     SwingUtilities.invokeLater(() -> new ComputerUI(memory, cpu, io));
   }
@@ -0,0 +1,222 @@
+package view;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.JTextPane;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultCaret;
+import javax.swing.text.Element;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+
+/**
+ * Output panel of the UI, with a scrollback of a fixed number of lines. Printed text is buffered
+ * and appended to the end of the document at most once per frame, see {@link
+ * RenderScheduler#FRAME_MILLIS}, so a program that prints every step does not post an event per
+ * character. When the scrollback is full, the oldest lines are dropped.
+ *
+ * <p>All print and append methods can be called from any thread.
+ */
+class OutputConsole extends JTextPane {
+
+  private static final Color ERROR_COLOR = new Color(200, 55, 40);
+  private static final Color INFO_COLOR = new Color(40, 55, 200);
+
+  /** Default number of lines to keep. */
+  static final int DEFAULT_CAPACITY = 5000;
+
+  private enum Style {
+    PLAIN,
+    INFO,
+    ERROR
+  }
+
+  private record Segment(Style style, StringBuilder text) {}
+
+  private final int capacity;
+  private final AttributeSet plain = new SimpleAttributeSet();
+  private final AttributeSet info = bold(INFO_COLOR);
+  private final AttributeSet error = bold(ERROR_COLOR);
+
+  // Guarded by pending. Whether the document (including pending text) is empty, and whether the
+  // next text starts a new line
+  private final List<Segment> pending = new ArrayList<>();
+  private boolean empty = true;
+  private boolean newLine = true;
+
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final Timer timer;
+
+  OutputConsole(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    this.capacity = capacity;
+    this.timer = new Timer(RenderScheduler.FRAME_MILLIS, e -> flush());
+    this.timer.setRepeats(false);
+    setEditable(false);
+    // Follow the end of the output
+    ((DefaultCaret) getCaret()).setUpdatePolicy(DefaultCaret.ALWAYS_UPDATE);
+  }
+
+  private static AttributeSet bold(Color color) {
+    SimpleAttributeSet attributes = new SimpleAttributeSet();
+    StyleConstants.setBold(attributes, true);
+    StyleConstants.setForeground(attributes, color);
+    return attributes;
+  }
+
+  /**
+   * Print an 8-bit character, where a newline makes the next character start a new line. Only the
+   * low 8 bits of the character are printed.
+   */
+  void printChar(char c) {
+    synchronized (pending) {
+      printPlain(c);
+    }
+    requestFlush();
+  }
+
+  /** Print 8-bit characters, the same as printing them one at a time with {@link #printChar}. */
+  void printText(CharSequence text) {
+    synchronized (pending) {
+      for (int i = 0; i < text.length(); i++) {
+        printPlain(text.charAt(i));
+      }
+    }
+    requestFlush();
+  }
+
+  private void printPlain(char c) {
+    c = (char) (c & 0xFF);
+    if (c == '\n') {
+      newLine = true;
+    } else {
+      startLineIfNeeded();
+      add(Style.PLAIN, c);
+    }
+  }
+
+  /** Print a number on a line of its own. */
+  void printNumber(int value) {
+    appendLine(Style.PLAIN, String.valueOf(value));
+  }
+
+  void appendInfo(String msg) {
+    appendLine(Style.INFO, msg);
+  }
+
+  void appendError(String msg) {
+    appendLine(Style.ERROR, msg);
+  }
+
+  void appendError(Exception ex) {
+    appendLine(Style.ERROR, ex.getClass().getSimpleName() + "\n" + ex.getMessage());
+  }
+
+  private void appendLine(Style style, String text) {
+    synchronized (pending) {
+      newLine = true;
+      startLineIfNeeded();
+      add(style, text);
+      newLine = true;
+    }
+    requestFlush();
+  }
+
+  private void startLineIfNeeded() {
+    if (newLine && !empty) {
+      add(Style.PLAIN, "\n");
+    }
+    newLine = false;
+  }
+
+  private void add(Style style, char c) {
+    Segment last = pending.isEmpty() ? null : pending.get(pending.size() - 1);
+    if (last != null && last.style() == style) {
+      last.text().append(c);
+    } else {
+      pending.add(new Segment(style, new StringBuilder().append(c)));
+    }
+    empty = false;
+  }
+
+  private void add(Style style, String text) {
+    Segment last = pending.isEmpty() ? null : pending.get(pending.size() - 1);
+    if (last != null && last.style() == style) {
+      last.text().append(text);
+    } else {
+      pending.add(new Segment(style, new StringBuilder(text)));
+    }
+    empty = false;
+  }
+
+  /** Remove all output, including output that has not been shown yet. Must be called on the EDT. */
+  void clear() {
+    synchronized (pending) {
+      pending.clear();
+      empty = true;
+      newLine = true;
+    }
+    setText("");
+  }
+
+  private void requestFlush() {
+    if (scheduled.compareAndSet(false, true)) {
+      SwingUtilities.invokeLater(timer::restart);
+    }
+  }
+
+  private void flush() {
+    scheduled.set(false);
+    List<Segment> segments;
+    synchronized (pending) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      segments = new ArrayList<>(pending);
+      pending.clear();
+    }
+
+    StyledDocument doc = getStyledDocument();
+    try {
+      for (Segment segment : segments) {
+        doc.insertString(doc.getLength(), segment.text().toString(), attributes(segment.style()));
+      }
+      trim(doc);
+    } catch (BadLocationException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private AttributeSet attributes(Style style) {
+    switch (style) {
+      case INFO:
+        return info;
+      case ERROR:
+        return error;
+      default:
+        return plain;
+    }
+  }
+
+  /*
+   * Drop the oldest lines when the scrollback is full. Lines are dropped in chunks of a tenth of
+   * the capacity, so that the document is not shifted for every new line.
+   */
+  private void trim(StyledDocument doc) throws BadLocationException {
+    Element root = doc.getDefaultRootElement();
+    int excess = root.getElementCount() - capacity;
+    if (excess <= 0) {
+      return;
+    }
+    int lines = Math.min(excess + capacity / 10, root.getElementCount() - 1);
+    doc.remove(0, root.getElement(lines).getStartOffset());
+  }
+}
@@ -1,7 +1,7 @@
 package view;
 
 import java.awt.Container;
-import model.Memory;
+import model.MemoryReader;
 import model.Registry;
 
 public class Register extends AbstractCell {
@@ -12,8 +12,8 @@ public class Register extends AbstractCell {
       String name,
       CellValueListener valueListener,
       RegisterSelecter registerSelecter,
-      Memory mem,
+      MemoryReader mem,
       Registry reg) {
-    super(parent, index, pad(index), name, valueListener, registerSelecter, mem, reg, false);
+    super(parent, index, pad(index), name, valueListener, registerSelecter, mem, reg, null);
   }
 }
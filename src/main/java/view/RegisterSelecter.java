@@ -22,9 +22,16 @@ public class RegisterSelecter extends AbstractSelecter {
     if (selectStartRange != -1) {
       // Move all cells after the selection up by the size of the selection
       int size = selectEndRange - selectStartRange;
-      for (int i = 0; i < size; i++) {
-        int nextValue = selectEndRange + i < maxRange ? registry.getValueAt(selectEndRange + i) : 0;
-        registry.setValueAt(selectStartRange + i, nextValue);
+      // One change for the whole shift, rather than one per cell
+      registry.beginBatch();
+      try {
+        for (int i = 0; i < size; i++) {
+          int nextValue =
+              selectEndRange + i < maxRange ? registry.getValueAt(selectEndRange + i) : 0;
+          registry.setValueAt(selectStartRange + i, nextValue);
+        }
+      } finally {
+        registry.commit();
       }
       selectEndRange = selectStartRange + 1;
     }
@@ -0,0 +1,142 @@
+package view;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Coalesces changes of the model into frames, which are rendered on the EDT at most once per
+ * {@link #FRAME_MILLIS}. The listeners of the model only mark which cells changed, without locking
+ * or posting an event per change, so the EDT is never flooded however fast the CPU runs. A frame
+ * reads the current values of the changed cells, so intermediate values are dropped, and the UI
+ * lags at most one frame behind the CPU.
+ */
+class RenderScheduler {
+
+  /** Renders a frame on the EDT. */
+  interface Renderer {
+    /**
+     * Render the cells that changed since the previous frame.
+     *
+     * @param memory The indices of the changed memory cells.
+     * @param registers The indices of the changed registers.
+     * @param pc The latest index of the program counter, or {@link #NO_CHANGE}.
+     */
+    void renderFrame(BitSet memory, BitSet registers, int pc);
+
+    /** Render a halt of the program counter, after the frame with its final state. */
+    void renderHalt(int reason);
+  }
+
+  static final int NO_CHANGE = -1;
+
+  /** Minimum time between two frames, i.e. 60 frames per second. */
+  static final int FRAME_MILLIS = 1000 / 60;
+
+  private final Renderer renderer;
+  private final AtomicLongArray dirtyMemory;
+  private final AtomicLongArray dirtyRegisters;
+  private final AtomicInteger pc = new AtomicInteger(NO_CHANGE);
+  private final AtomicInteger haltReason = new AtomicInteger();
+  private final AtomicBoolean halted = new AtomicBoolean();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  // Only used on the EDT
+  private final Timer timer;
+  private final BitSet memoryFrame;
+  private final BitSet registerFrame;
+  private long lastFrame;
+
+  RenderScheduler(int memorySize, int numRegisters, Renderer renderer) {
+    this.renderer = renderer;
+    this.dirtyMemory = new AtomicLongArray(words(memorySize));
+    this.dirtyRegisters = new AtomicLongArray(words(numRegisters));
+    this.memoryFrame = new BitSet(memorySize);
+    this.registerFrame = new BitSet(numRegisters);
+    this.timer = new Timer(FRAME_MILLIS, e -> renderFrame());
+    this.timer.setRepeats(false);
+  }
+
+  private static int words(int bits) {
+    return (bits + Long.SIZE - 1) / Long.SIZE;
+  }
+
+  /** Mark a range of memory cells as changed. Can be called from any thread. */
+  void memoryChanged(int startIdx, int count) {
+    mark(dirtyMemory, startIdx, count);
+    requestFrame();
+  }
+
+  /** Mark a range of registers as changed. Can be called from any thread. */
+  void registersChanged(int startIdx, int count) {
+    mark(dirtyRegisters, startIdx, count);
+    requestFrame();
+  }
+
+  /** Set the latest index of the program counter. Can be called from any thread. */
+  void programCounterChanged(int newIdx) {
+    pc.set(newIdx);
+    requestFrame();
+  }
+
+  /** Render a halt after the next frame. Can be called from any thread. */
+  void programCounterHalted(int reason) {
+    haltReason.set(reason);
+    halted.set(true);
+    requestFrame();
+  }
+
+  private static void mark(AtomicLongArray dirty, int startIdx, int count) {
+    for (int idx = startIdx; idx < startIdx + count; idx++) {
+      long bit = 1L << (idx % Long.SIZE);
+      int word = idx / Long.SIZE;
+      if ((dirty.get(word) & bit) == 0) {
+        dirty.getAndUpdate(word, w -> w | bit);
+      }
+    }
+  }
+
+  private void requestFrame() {
+    // At most one frame is pending, so a change only posts an event if there is none
+    if (scheduled.compareAndSet(false, true)) {
+      SwingUtilities.invokeLater(this::startTimer);
+    }
+  }
+
+  private void startTimer() {
+    long sinceLastFrame = (System.nanoTime() - lastFrame) / 1_000_000;
+    if (sinceLastFrame >= FRAME_MILLIS) {
+      renderFrame();
+    } else {
+      timer.setInitialDelay((int) (FRAME_MILLIS - sinceLastFrame));
+      timer.restart();
+    }
+  }
+
+  private void renderFrame() {
+    lastFrame = System.nanoTime();
+    // Cleared before draining, so changes made while rendering request another frame
+    scheduled.set(false);
+    drain(dirtyMemory, memoryFrame);
+    drain(dirtyRegisters, registerFrame);
+    int newPc = pc.getAndSet(NO_CHANGE);
+    renderer.renderFrame(memoryFrame, registerFrame, newPc);
+    if (halted.getAndSet(false)) {
+      renderer.renderHalt(haltReason.get());
+    }
+  }
+
+  private static void drain(AtomicLongArray dirty, BitSet frame) {
+    frame.clear();
+    for (int word = 0; word < dirty.length(); word++) {
+      long bits = dirty.getAndSet(word, 0);
+      while (bits != 0) {
+        frame.set(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+        bits &= bits - 1;
+      }
+    }
+  }
+}
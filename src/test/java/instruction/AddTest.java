@@ -18,13 +18,13 @@ class AddTest {
     IO mockIO = mock(IO.class);
 
     // Assuming that values have been loaded into registers OP1 and OP2
-    when(mockRegistry.getRegister(Registry.REG_OP1)).thenReturn(5); // First operand
-    when(mockRegistry.getRegister(Registry.REG_OP2)).thenReturn(10); // Second operand
+    when(mockRegistry.getRegister(Registry.IDX_OP1)).thenReturn(5); // First operand
+    when(mockRegistry.getRegister(Registry.IDX_OP2)).thenReturn(10); // Second operand
 
     Add addInstruction = new Add(0);
     addInstruction.execute(null, mockRegistry, mockPC, mockIO);
 
-    verify(mockRegistry).setRegister(Registry.REG_RES, 15);
+    verify(mockRegistry).setRegister(Registry.IDX_RES, 15);
   }
 
   @Test
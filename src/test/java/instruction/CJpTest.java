@@ -50,7 +50,7 @@ class CJpTest {
     Integer[] rhops = new Integer[] {5, 7, 8, 5, 3, 0};
 
     // Destination address is always read from the RES register
-    when(mockRegistry.getRegister(Registry.REG_RES)).thenReturn(destinationAddress);
+    when(mockRegistry.getRegister(Registry.IDX_RES)).thenReturn(destinationAddress);
 
     // Setup conditions where OP1 does not equal OP2
     when(mockMemory.getValueAt(1)).thenReturn(addressesValue);
@@ -89,7 +89,7 @@ class CJpTest {
     Integer[] rhops = new Integer[] {3, 5, 5, 1, 5, 6};
 
     // Destination address is always read from the RES register
-    when(mockRegistry.getRegister(Registry.REG_RES)).thenReturn(destinationAddress);
+    when(mockRegistry.getRegister(Registry.IDX_RES)).thenReturn(destinationAddress);
 
     // Setup conditions where OP1 does not equal OP2
     when(mockMemory.getValueAt(1)).thenReturn(addressesValue);
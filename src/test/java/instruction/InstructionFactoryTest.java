@@ -1,9 +1,14 @@
 package instruction;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -163,4 +168,29 @@ class InstructionFactoryTest {
     //     UnsupportedOperationException.class,
     //     () -> invalidInstruction.execute(null, null, mockPC, null));
   }
+
+  @Test
+  void testCreateInstructionReturnsSharedInstance() {
+    for (int code = 0; code < 256; code++) {
+      assertSame(
+          factory.createInstruction(code),
+          factory.createInstruction(code),
+          "The same code should always decode to the same instance.");
+    }
+    assertSame(
+        factory.createInstruction(0x7A5),
+        factory.createInstruction(0xA5),
+        "Only the last 8 bits should be used for decoding.");
+  }
+
+  @Test
+  void testDecodeTableMatchesFactory() {
+    List<Instruction> table = InstructionFactory.getDecodeTable();
+    assertEquals(256, table.size(), "The decode table should have one entry per 8-bit code.");
+    for (int code = 0; code < table.size(); code++) {
+      assertSame(table.get(code), factory.createInstruction(code));
+      assertSame(table.get(code), InstructionFactory.decode(code));
+    }
+    assertThrows(UnsupportedOperationException.class, () -> table.set(0, new Nop(0)));
+  }
 }
@@ -0,0 +1,52 @@
+package instruction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class InstructionTest {
+
+  @Test
+  void testToBinaryStringPadsToLength() {
+    assertEquals("00000101", Instruction.toBinaryString(5, 8));
+    assertEquals("0101", Instruction.toBinaryString(5, 4));
+    assertEquals("0", Instruction.toBinaryString(0, 1));
+  }
+
+  @Test
+  void testToBinaryStringDoesNotTruncateToLength() {
+    assertEquals("101", Instruction.toBinaryString(5, 2));
+  }
+
+  @Test
+  void testToBinaryStringOfBytesInGroupsOfFour() {
+    assertEquals("0000 0000", Instruction.toBinaryString(0, 8, 4));
+    assertEquals("1010 0101", Instruction.toBinaryString(0xA5, 8, 4));
+    assertEquals("1111 1111", Instruction.toBinaryString(0xFF, 8, 4));
+  }
+
+  @Test
+  void testToBinaryStringGroupsFromTheLeft() {
+    assertEquals("000 001 01", Instruction.toBinaryString(5, 8, 3));
+    assertEquals("0001 0010 0011 0100", Instruction.toBinaryString(0x1234, 16, 4));
+  }
+
+  @Test
+  void testToBinaryStringDoesNotGroupWithGroupSizeOfOneOrAtLeastTheLength() {
+    assertEquals("0101", Instruction.toBinaryString(5, 4, 1));
+    assertEquals("0101", Instruction.toBinaryString(5, 4, 8));
+    assertEquals("1111", Instruction.toBinaryString(0xF, 4, 4));
+  }
+
+  @Test
+  void testToBinaryStringOfValuesOverEightBits() {
+    assertEquals("1111 1111 1", Instruction.toBinaryString(0x1FF, 8, 4));
+    assertEquals("1011 0100 1", Instruction.toBinaryString(0x169, 8, 4));
+  }
+
+  @Test
+  void testToBinaryStringOfNegativeValuesHasAllBits() {
+    assertEquals("1111 1111 1111 1111 1111 1111 1111 1111", Instruction.toBinaryString(-1, 8, 4));
+    assertEquals("11111111111111111111111111111110", Instruction.toBinaryString(-2, 8));
+  }
+}
@@ -21,12 +21,12 @@ class PrDTest {
     int value = 57; // Value to be printed
 
     // Assuming that value have been loaded into register PRT
-    when(mockRegistry.getRegister(Registry.REG_OUT)).thenReturn(value);
+    when(mockRegistry.getRegister(Registry.IDX_OUT)).thenReturn(value);
 
     PrD printInstruction = new PrD(0);
     printInstruction.execute(null, mockRegistry, mockPC, mockIO);
 
-    verify(mockRegistry).getRegister(Registry.REG_OUT);
+    verify(mockRegistry).getRegister(Registry.IDX_OUT);
     verify(mockPC, times(1)).next();
     verify(mockIO).print(value);
   }
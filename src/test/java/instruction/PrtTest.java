@@ -22,12 +22,12 @@ class PrTTest {
     int charCode = (int) character;
 
     // Assuming that value have been loaded into register PRT
-    when(mockRegistry.getRegister(Registry.REG_OUT)).thenReturn(charCode);
+    when(mockRegistry.getRegister(Registry.IDX_OUT)).thenReturn(charCode);
 
     PrT printInstruction = new PrT(0);
     printInstruction.execute(null, mockRegistry, mockPC, mockIO);
 
-    verify(mockRegistry).getRegister(Registry.REG_OUT);
+    verify(mockRegistry).getRegister(Registry.IDX_OUT);
     verify(mockPC, times(1)).next();
     verify(mockIO).print(character);
   }
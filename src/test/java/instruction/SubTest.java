@@ -19,13 +19,13 @@ class SubTest {
     ProgramCounter mockPC = mock(ProgramCounter.class);
     IO mockIO = mock(IO.class);
 
-    when(mockRegistry.getRegister(Registry.REG_OP1)).thenReturn(10); // First operand
-    when(mockRegistry.getRegister(Registry.REG_OP2)).thenReturn(5); // Second operand
+    when(mockRegistry.getRegister(Registry.IDX_OP1)).thenReturn(10); // First operand
+    when(mockRegistry.getRegister(Registry.IDX_OP2)).thenReturn(5); // Second operand
 
     Sub subInstruction = new Sub(0);
     subInstruction.execute(null, mockRegistry, mockPC, mockIO);
 
-    verify(mockRegistry).setRegister(eq(Registry.REG_RES), eq(5));
+    verify(mockRegistry).setRegister(eq(Registry.IDX_RES), eq(5));
   }
 
   @Test
@@ -36,13 +36,13 @@ class SubTest {
     ProgramCounter mockPC = mock(ProgramCounter.class);
     IO mockIO = mock(IO.class);
 
-    when(mockRegistry.getRegister(Registry.REG_OP1)).thenReturn(10); // First operand
-    when(mockRegistry.getRegister(Registry.REG_OP2)).thenReturn(25); // Second operand
+    when(mockRegistry.getRegister(Registry.IDX_OP1)).thenReturn(10); // First operand
+    when(mockRegistry.getRegister(Registry.IDX_OP2)).thenReturn(25); // Second operand
 
     Sub subInstruction = new Sub(0);
     subInstruction.execute(null, mockRegistry, mockPC, mockIO);
 
-    verify(mockRegistry).setRegister(eq(Registry.REG_RES), eq(-15));
+    verify(mockRegistry).setRegister(eq(Registry.IDX_RES), eq(-15));
   }
 
   @Test
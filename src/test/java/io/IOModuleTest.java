@@ -0,0 +1,258 @@
+package io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IOModuleTest {
+
+  /** Records every call, with chunks as "text:..." to tell them from single characters. */
+  private static class Recorder implements IOListener {
+    final List<String> calls = new ArrayList<>();
+
+    @Override
+    public void print(int value) {
+      calls.add("number:" + value);
+    }
+
+    @Override
+    public void print(char character) {
+      calls.add("char:" + character);
+    }
+
+    @Override
+    public void print(CharSequence text) {
+      calls.add("text:" + text);
+    }
+  }
+
+  private final Queue<Runnable> tasks = new ArrayDeque<>();
+  private Recorder recorder;
+
+  @BeforeEach
+  void setUp() {
+    recorder = new Recorder();
+  }
+
+  /** Create buffered IO whose tasks are run by the test thread, which it learns at once. */
+  private IOModule buffered(int capacity) {
+    IOModule io = new IOModule(capacity, tasks::add);
+    io.addListener(recorder);
+    runTasks();
+    return io;
+  }
+
+  private void runTasks() {
+    while (!tasks.isEmpty()) {
+      tasks.remove().run();
+    }
+  }
+
+  @Test
+  void testUnbufferedPrintsAreDeliveredAtOnce() {
+    IOModule io = new IOModule();
+    io.addListener(recorder);
+    assertFalse(io.isBuffered());
+
+    io.print('a');
+    io.print(42);
+    io.flush();
+
+    assertEquals(List.of("char:a", "number:42"), recorder.calls);
+  }
+
+  @Test
+  void testBufferedPrintsAreDeliveredInChunksByOneTask() {
+    IOModule io = buffered(16);
+    assertTrue(io.isBuffered());
+
+    io.print('H');
+    io.print('i');
+    io.print(42);
+    io.print('!');
+    assertEquals(List.of(), recorder.calls);
+    assertEquals(1, tasks.size());
+
+    runTasks();
+    assertEquals(List.of("text:Hi", "number:42", "text:!"), recorder.calls);
+
+    io.print('?');
+    assertEquals(1, tasks.size());
+  }
+
+  @Test
+  void testFlushWaitsUntilOutputIsDelivered() throws InterruptedException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      IOModule io = new IOModule(16, executor);
+      io.addListener(recorder);
+      io.print('a');
+      io.print(1);
+      io.flush();
+      assertEquals(List.of("text:a", "number:1"), recorder.calls);
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  void testFullBufferMakesThePrintingThreadWaitForTheDrainTask() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Thread drainThread = executor.submit(Thread::currentThread).get();
+      List<Thread> listenerThreads = new ArrayList<>();
+      StringBuilder printed = new StringBuilder();
+      IOModule io = new IOModule(4, executor);
+      io.addListener(
+          new Recorder() {
+            @Override
+            public void print(int value) {
+              listenerThreads.add(Thread.currentThread());
+              printed.append('#').append(value);
+            }
+
+            @Override
+            public void print(CharSequence text) {
+              listenerThreads.add(Thread.currentThread());
+              printed.append(text);
+            }
+          });
+
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < 1000; i++) {
+        char c = (char) ('a' + i % 26);
+        io.print(c);
+        expected.append(c);
+        if (i % 10 == 0) {
+          io.print(i);
+          expected.append('#').append(i);
+        }
+      }
+      io.flush();
+
+      assertEquals(expected.toString(), printed.toString());
+      assertTrue(listenerThreads.stream().allMatch(thread -> thread == drainThread));
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  void testFlushReturnsWhenInterrupted() throws InterruptedException {
+    IOModule io = buffered(16);
+    Thread printer =
+        new Thread(
+            () -> {
+              io.print('a');
+              Thread.currentThread().interrupt();
+              io.flush();
+            });
+    printer.start();
+    printer.join(1000);
+    assertFalse(printer.isAlive());
+    assertEquals(List.of(), recorder.calls);
+
+    runTasks();
+    assertEquals(List.of("text:a"), recorder.calls);
+  }
+
+  @Test
+  void testFlushOnTheDrainThreadDeliversAtOnce() {
+    IOModule io = buffered(16);
+    io.print('a');
+    io.print(1);
+    io.flush();
+    assertEquals(List.of("text:a", "number:1"), recorder.calls);
+
+    // The scheduled task finds nothing left
+    runTasks();
+    assertEquals(2, recorder.calls.size());
+  }
+
+  @Test
+  void testFullBufferOnTheDrainThreadIsDrainedAtOnce() {
+    IOModule io = buffered(4);
+    for (char c = 'a'; c <= 'f'; c++) {
+      io.print(c);
+    }
+    io.flush();
+    assertEquals(List.of("text:abcd", "text:ef"), recorder.calls);
+  }
+
+  @Test
+  void testListenerThatOverfillsTheBufferThrows() {
+    IOModule io = buffered(2);
+    io.addListener(
+        new Recorder() {
+          @Override
+          public void print(int value) {
+            io.print('x');
+            io.print('y');
+            io.print('z');
+          }
+        });
+    io.print(1);
+    assertThrows(IllegalStateException.class, this::runTasks);
+  }
+
+  @Test
+  void testNegativeNumbersAreNotTakenForCharacters() {
+    IOModule io = buffered(4);
+    io.print(-1);
+    io.print(-1);
+    runTasks();
+    assertEquals(List.of("number:-1", "number:-1"), recorder.calls);
+  }
+
+  @Test
+  void testModCountCountsEveryPrint() {
+    IOModule unbuffered = new IOModule();
+    IOModule io = buffered(16);
+    for (IOModule module : List.of(unbuffered, io)) {
+      module.print('a');
+      module.print(1);
+      assertEquals(2, module.modCount());
+    }
+  }
+
+  @Test
+  void testDefaultChunkListenerPrintsEveryCharacter() {
+    List<Character> chars = new ArrayList<>();
+    IOListener listener =
+        new IOListener() {
+          @Override
+          public void print(int value) {}
+
+          @Override
+          public void print(char character) {
+            chars.add(character);
+          }
+        };
+    IOModule io = new IOModule(16, tasks::add);
+    io.addListener(listener);
+    io.print('o');
+    io.print('k');
+    runTasks();
+    assertEquals(List.of('o', 'k'), chars);
+  }
+
+  @Test
+  void testInvalidCapacityThrows() {
+    assertThrows(IllegalArgumentException.class, () -> new IOModule(1, tasks::add));
+    assertThrows(IllegalArgumentException.class, () -> new IOModule(12, tasks::add));
+    assertThrows(IllegalArgumentException.class, () -> new IOModule(16, null));
+  }
+}
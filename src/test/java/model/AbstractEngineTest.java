@@ -0,0 +1,216 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import instruction.InstructionFactory;
+import io.IOListener;
+import io.IOModule;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import util.ExamplesHandler;
+
+/**
+ * Runs programs with the interpreter and an execution engine, and checks that the engine gives the
+ * same results.
+ */
+abstract class AbstractEngineTest {
+
+  static final RunOptions INTERPRETER = RunOptions.unlimited().withMaxSteps(20_000);
+
+  /** Get the engine under test. */
+  abstract RunOptions.Engine engine();
+
+  RunOptions engineOptions() {
+    return INTERPRETER.withEngine(engine());
+  }
+
+  /** A CPU with its memory and everything it printed. */
+  static class Machine {
+    final ByteStorage memory;
+    final CPU cpu;
+    final StringBuilder output = new StringBuilder();
+
+    Machine(int size, int[] program) {
+      memory = new ByteStorage(size);
+      for (int i = 0; i < program.length && i < size; i++) {
+        memory.setValueAt(i, program[i]);
+      }
+      IOModule io = new IOModule();
+      io.addListener(
+          new IOListener() {
+            @Override
+            public void print(int value) {
+              output.append('[').append(value).append(']');
+            }
+
+            @Override
+            public void print(char character) {
+              output.append(character);
+            }
+          });
+      cpu = new CPU(memory, new InstructionFactory(), io);
+    }
+  }
+
+  void assertSameRun(int size, int[] program, RunOptions options) {
+    Machine interpreted = new Machine(size, program);
+    Machine compiled = new Machine(size, program);
+    RunResult expected = interpreted.cpu.run(options);
+    RunResult actual = compiled.cpu.run(options.withEngine(engine()));
+    assertSameState(interpreted, expected, compiled, actual);
+  }
+
+  static void assertSameState(
+      Machine interpreted, RunResult expected, Machine compiled, RunResult actual) {
+    assertEquals(expected.reason(), actual.reason());
+    assertEquals(expected.cycleLength(), actual.cycleLength());
+    if (expected.reason() == RunResult.Reason.INFINITE_LOOP) {
+      return; // Engines only look for repeated states between jumps
+    }
+    assertEquals(expected.steps(), actual.steps());
+    if (expected.error() != null) {
+      assertEquals(expected.error().getClass(), actual.error().getClass());
+    }
+
+    ProgramCounter expectedPc = interpreted.cpu.getProgramCounter();
+    ProgramCounter actualPc = compiled.cpu.getProgramCounter();
+    assertEquals(expectedPc.getCurrentIndex(), actualPc.getCurrentIndex());
+    assertEquals(expectedPc.isHalted(), actualPc.isHalted());
+    assertEquals(expectedPc.getHaltReason(), actualPc.getHaltReason());
+
+    RegStorage expectedRegs = (RegStorage) interpreted.cpu.getRegistry();
+    RegStorage actualRegs = (RegStorage) compiled.cpu.getRegistry();
+    for (int i = 0; i < Registry.NUM_REGISTERS; i++) {
+      assertEquals(expectedRegs.getRawValueAt(i), actualRegs.getRawValueAt(i), "Register " + i);
+    }
+    for (int i = 0; i < interpreted.memory.size(); i++) {
+      assertEquals(
+          interpreted.memory.getRawValueAt(i), compiled.memory.getRawValueAt(i), "Address " + i);
+    }
+    assertEquals(interpreted.output.toString(), compiled.output.toString());
+  }
+
+  private static int[] example(String name) {
+    String[] lines = ExamplesHandler.getExample(name);
+    int[] program = new int[lines.length];
+    for (int i = 0; i < lines.length; i++) {
+      program[i] = Integer.parseInt(lines[i], 2);
+    }
+    return program;
+  }
+
+  @Test
+  void testExamplesMatchInterpreter() {
+    assertFalse(ExamplesHandler.getExampleNames().isEmpty());
+    for (String name : ExamplesHandler.getExampleNames()) {
+      assertSameRun(256, example(name), INTERPRETER);
+      assertSameRun(256, example(name), INTERPRETER.withLoopDetection(true));
+    }
+  }
+
+  @Test
+  void testRandomProgramsMatchInterpreter() {
+    Random random = new Random(42);
+    for (int n = 0; n < 3000; n++) {
+      int size = random.nextInt(4) == 0 ? 1 + random.nextInt(64) : 256;
+      int[] program = new int[random.nextInt(64)];
+      for (int i = 0; i < program.length; i++) {
+        // Mostly small operands, so that most register references are valid
+        program[i] = (random.nextInt(16) << 4) | random.nextInt(random.nextBoolean() ? 7 : 16);
+      }
+      assertSameRun(size, program, INTERPRETER.withMaxSteps(random.nextInt(2000)));
+      assertSameRun(size, program, INTERPRETER.withLoopDetection(true));
+    }
+  }
+
+  @Test
+  void testSelfModifyingCodeIsRecompiled() {
+    int[] program = {
+      0b0101_0000, // LD R0
+      0b1110_0000, // = HLT
+      0b0111_0000, // ST R0
+      0b0000_0101, // -> m[5]
+      0b0000_0000, // NOP
+      0b0000_0000, // NOP, replaced by HLT
+      0b0011_0001, // INC R1
+      0b1110_0000 // HLT
+    };
+    Machine machine = new Machine(256, program);
+    RunResult result = machine.cpu.run(engineOptions());
+
+    assertEquals(RunResult.Reason.HALTED, result.reason());
+    assertEquals(4, result.steps());
+    assertEquals(5, machine.cpu.getProgramCounter().getCurrentIndex());
+    assertEquals(0, machine.cpu.getRegistry().getRegister(Registry.REG_R1));
+    assertSameRun(256, program, INTERPRETER);
+  }
+
+  @Test
+  void testEditedCodeIsNotReused() {
+    int[] program = {
+      0b0011_0001, // INC R1, replaced by INC R2
+      0b1110_0000 // HLT
+    };
+    Machine machine = new Machine(256, program);
+    machine.cpu.run(engineOptions());
+    assertEquals(1, machine.cpu.getRegistry().getRegister(Registry.REG_R1));
+
+    machine.memory.setValuesInRange(new util.Range(0, 1), new int[] {0b0011_0010});
+    machine.cpu.reset();
+    machine.cpu.run(engineOptions());
+    assertEquals(0, machine.cpu.getRegistry().getRegister(Registry.REG_R1));
+    assertEquals(1, machine.cpu.getRegistry().getRegister(Registry.REG_R2));
+  }
+
+  @Test
+  void testStepLimitMatchesInterpreter() {
+    int[] program = {
+      0b0011_0000, // INC R0
+      0b0011_0001, // INC R1
+      0b0011_0010, // INC R2
+      0b1001_0111, // JMP *R7, i.e. to the next address
+      0b1110_0000 // HLT
+    };
+    Machine interpreted = new Machine(256, program);
+    Machine compiled = new Machine(256, program);
+    for (int i = 0; i < 3; i++) {
+      RunResult expected = interpreted.cpu.run(INTERPRETER.withMaxSteps(2));
+      RunResult actual = compiled.cpu.run(engineOptions().withMaxSteps(2));
+      assertSameState(interpreted, expected, compiled, actual);
+    }
+    assertTrue(compiled.cpu.getProgramCounter().isHalted());
+  }
+
+  @Test
+  void testErrorMatchesInterpreter() {
+    int[] program = {
+      0b0011_0000, // INC R0
+      0b0111_0000, // ST R0
+      0b1100_1000, // -> m[200], outside of the memory
+      0b1110_0000 // HLT
+    };
+    Machine compiled = new Machine(16, program);
+    RunResult result = compiled.cpu.run(engineOptions());
+
+    assertEquals(RunResult.Reason.ERROR, result.reason());
+    assertInstanceOf(IllegalArgumentException.class, result.error());
+    assertEquals(2, result.steps());
+    assertEquals(3, compiled.cpu.getProgramCounter().getCurrentIndex());
+    assertSameRun(16, program, INTERPRETER);
+  }
+
+  @Test
+  void testEndOfMemoryMatchesInterpreter() {
+    int[] program = new int[16]; // Only NOPs
+    Machine compiled = new Machine(16, program);
+    RunResult result = compiled.cpu.run(engineOptions());
+
+    assertEquals(RunResult.Reason.END_OF_MEMORY, result.reason());
+    assertEquals(16, result.steps());
+    assertEquals(ProgramCounter.END_OF_MEMORY, compiled.cpu.getProgramCounter().getHaltReason());
+    assertSameRun(16, program, INTERPRETER);
+  }
+}
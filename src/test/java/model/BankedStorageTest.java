@@ -0,0 +1,211 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import instruction.InstructionFactory;
+import io.IOModule;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Range;
+
+class BankedStorageTest {
+
+  private static final int COMMON = 128;
+
+  private BankedStorage storage;
+
+  @BeforeEach
+  void setUp() {
+    storage = new BankedStorage(4, COMMON);
+  }
+
+  @Test
+  void testBanksHaveTheirOwnCells() {
+    storage.setValueAt(200, 1);
+    storage.selectBank(2);
+    assertEquals(0, storage.getValueAt(200));
+    storage.setValueAt(200, 3);
+
+    storage.selectBank(0);
+    assertEquals(1, storage.getValueAt(200));
+    storage.selectBank(2);
+    assertEquals(3, storage.getValueAt(200));
+  }
+
+  @Test
+  void testCommonCellsAndBankSelectAreSharedByAllBanks() {
+    storage.setValueAt(COMMON - 1, 7);
+    storage.selectBank(3);
+
+    assertEquals(7, storage.getValueAt(COMMON - 1));
+    assertEquals(3, storage.getValueAt(BankedStorage.BANK_SELECT));
+    assertEquals(3, storage.getBank());
+  }
+
+  @Test
+  void testWritingTheBankSelectSwitchesBank() {
+    storage.setValueAt(BankedStorage.BANK_SELECT, 1);
+    assertEquals(1, storage.getBank());
+
+    // Numbers beyond the last bank wrap around
+    storage.setValueAt(BankedStorage.BANK_SELECT, 6);
+    assertEquals(2, storage.getBank());
+  }
+
+  @Test
+  void testSwitchingNotifiesListenersOfTheBankedCells() {
+    StorageListener listener = mock(StorageListener.class);
+    storage.addListener(listener);
+
+    storage.selectBank(1);
+
+    verify(listener).onStorageChanged(eq(COMMON), any());
+    verify(listener).onStorageChanged(BankedStorage.BANK_SELECT, new int[] {1});
+  }
+
+  @Test
+  void testExportAndImportCoverAllBanks() {
+    storage.setValueAt(10, 5);
+    storage.selectBank(3);
+    storage.setValueAt(250, 9);
+    String[] binary = storage.exportAsBinary();
+    String base64 = storage.exportAsBase64();
+    assertEquals(3 * BankedStorage.BANK_SIZE + 251, binary.length);
+
+    BankedStorage fromBinary = new BankedStorage(4, COMMON);
+    fromBinary.importFromBinary(
+        Arrays.stream(binary).map(s -> s.replace(" ", "")).toArray(String[]::new));
+    BankedStorage fromBase64 = new BankedStorage(4, COMMON);
+    fromBase64.importFromBase64(base64);
+
+    for (BankedStorage imported : new BankedStorage[] {fromBinary, fromBase64}) {
+      assertEquals(3, imported.getBank());
+      assertEquals(9, imported.getValueAt(250));
+      assertEquals(5, imported.getValueAt(10));
+      assertEquals(storage.fingerprint(), imported.fingerprint());
+    }
+  }
+
+  @Test
+  void testFingerprintCoversHiddenBanks() {
+    long empty = storage.fingerprint();
+    storage.selectBank(1);
+    storage.setValueAt(200, 4);
+    storage.selectBank(0);
+
+    assertNotEquals(empty, storage.fingerprint());
+    assertArrayEquals(new int[] {0}, storage.getValuesInRange(new Range(200, 201)));
+  }
+
+  @Test
+  void testResetClearsAllBanks() {
+    storage.selectBank(2);
+    storage.setValueAt(200, 4);
+    storage.reset();
+
+    assertEquals(0, storage.getBank());
+    assertEquals(0, storage.fingerprint());
+    assertEquals("", storage.exportAsBase64());
+  }
+
+  @Test
+  void testProgramSwitchesBanks() {
+    int[] program = {
+      0b0101_0000, 2, // LD 2 -> R0
+      0b0111_0000, BankedStorage.BANK_SELECT, // ST R0 -> m[255]
+      0b0101_0001, 42, // LD 42 -> R1
+      0b0111_0001, 200, // ST R1 -> m[200]
+      0b1110_0000 // HLT
+    };
+    for (int i = 0; i < program.length; i++) {
+      storage.setValueAt(i, program[i]);
+    }
+    CPU cpu = new CPU(storage, new InstructionFactory(), new IOModule());
+    cpu.run();
+
+    assertEquals(2, storage.getBank());
+    assertEquals(42, storage.getValueAt(200));
+    storage.selectBank(0);
+    assertEquals(0, storage.getValueAt(200));
+  }
+
+  @Test
+  void testInvalidBanks() {
+    assertThrows(IllegalArgumentException.class, () -> new BankedStorage(0, COMMON));
+    assertThrows(IllegalArgumentException.class, () -> new BankedStorage(257, COMMON));
+    assertThrows(IllegalArgumentException.class, () -> new BankedStorage(2, 256));
+    assertThrows(IllegalArgumentException.class, () -> storage.selectBank(4));
+  }
+
+  @Test
+  void testViewShowsAnotherBankWithoutSwitching() {
+    storage.setValueAt(COMMON - 1, 7);
+    storage.selectBank(2);
+    storage.setValueAt(200, 3);
+    storage.selectBank(0);
+    StorageListener listener = mock(StorageListener.class);
+    storage.addListener(listener);
+
+    BankedStorage.View view = storage.view();
+    assertEquals(0, view.getBank());
+    view.showBank(2);
+
+    assertEquals(3, view.getValueAt(200));
+    assertEquals(7, view.getValueAt(COMMON - 1));
+    assertEquals(0, view.getValueAt(BankedStorage.BANK_SELECT));
+    assertEquals(0, storage.getBank());
+    verifyNoInteractions(listener);
+  }
+
+  @Test
+  void testViewFollowsTheVisibleBank() {
+    BankedStorage.View view = storage.view();
+    storage.selectBank(1);
+    storage.setValueAt(200, 5);
+
+    assertEquals(BankedStorage.View.VISIBLE, view.getShownBank());
+    assertEquals(1, view.getBank());
+    assertEquals(5, view.getValueAt(200));
+    assertTrue(view.showsVisibleBank());
+  }
+
+  @Test
+  void testViewOfABankByNumberShowsTheVisibleBankOnceSwitchedTo() {
+    BankedStorage.View view = storage.view();
+    view.showBank(2);
+    assertFalse(view.showsVisibleBank());
+
+    storage.selectBank(2);
+    assertTrue(view.showsVisibleBank());
+    storage.selectBank(1);
+    assertFalse(view.showsVisibleBank());
+  }
+
+  @Test
+  void testViewReadsRangesOfTheShownBank() {
+    storage.setValueAt(COMMON - 1, 7);
+    storage.selectBank(1);
+    storage.setValueAt(COMMON, 9);
+    storage.selectBank(0);
+
+    BankedStorage.View view = storage.view();
+    view.showBank(1);
+
+    assertArrayEquals(new int[] {7, 9}, view.getValuesInRange(new Range(COMMON - 1, COMMON + 1)));
+    assertThrows(IllegalArgumentException.class, () -> view.getValuesInRange(new Range(255, 257)));
+    assertThrows(IndexOutOfBoundsException.class, () -> view.getValueAt(256));
+    assertThrows(IllegalArgumentException.class, () -> view.showBank(4));
+    assertEquals(0, storage.getBank());
+  }
+}
@@ -0,0 +1,127 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import util.ExamplesHandler;
+
+class BatchRunnerTest {
+
+  private static final RunOptions OPTIONS = RunOptions.unlimited().withMaxSteps(10_000);
+
+  // Counts R1 up to a limit, printing every value, then halts
+  private static String[] countTo(int limit) {
+    int[] program = {
+      0b0101_0010, limit, // LD limit -> R2
+      0b0101_0101, 4, // LD 4 -> RES
+      0b0011_0001, // INC R1
+      0b0100_0000, 0b0001_0110, // CPY R1 -> OUT
+      0b1100_0000, // PRD
+      0b1010_0010, 0b0001_0010, // CJP (R1 != R2 -> *RES)
+      0b1110_0000 // HLT
+    };
+    ByteStorage memory = new ByteStorage(BatchRunner.MEMORY_SIZE);
+    for (int i = 0; i < program.length; i++) {
+      memory.setValueAt(i, program[i]);
+    }
+    // In the format of FileHandler and ExamplesHandler, without spaces
+    return Arrays.stream(memory.exportAsBinary())
+        .map(s -> s.replace(" ", ""))
+        .toArray(String[]::new);
+  }
+
+  @Test
+  void testResultsMatchSequentialRunsInJobOrder() {
+    List<BatchRunner.Job> jobs = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      jobs.add(BatchRunner.Job.ofBinary("count" + i, countTo(i % 50 + 1), OPTIONS));
+    }
+    for (String name : ExamplesHandler.getExampleNames()) {
+      jobs.add(BatchRunner.Job.ofBinary(name, ExamplesHandler.getExample(name), OPTIONS));
+    }
+
+    List<BatchRunner.Result> results;
+    try (BatchRunner runner = new BatchRunner(4)) {
+      results = runner.runAll(jobs);
+    }
+
+    assertEquals(jobs.size(), results.size());
+    for (int i = 0; i < jobs.size(); i++) {
+      BatchRunner.Result expected = BatchRunner.run(jobs.get(i));
+      BatchRunner.Result actual = results.get(i);
+      assertEquals(expected.name(), actual.name());
+      assertEquals(expected.run().reason(), actual.run().reason(), expected.name());
+      assertEquals(expected.run().steps(), actual.run().steps(), expected.name());
+      assertEquals(expected.output(), actual.output(), expected.name());
+      assertArrayEquals(expected.memory(), actual.memory(), expected.name());
+      assertArrayEquals(expected.registers(), actual.registers(), expected.name());
+    }
+  }
+
+  @Test
+  void testCountingProgramResult() {
+    BatchRunner.Result result =
+        BatchRunner.run(BatchRunner.Job.ofBinary("count", countTo(3), OPTIONS));
+
+    assertEquals(RunResult.Reason.HALTED, result.run().reason());
+    assertEquals(2 + 3 * 4 + 1, result.run().steps());
+    assertEquals("1\n2\n3\n\n", result.output()); // HLT prints a newline
+    assertEquals(3, result.registers()[Registry.nameToIdx(Registry.REG_R1)]);
+    assertEquals(BatchRunner.MEMORY_SIZE, result.memory().length);
+  }
+
+  @Test
+  void testBase64ImageGivesSameResultAsBinary() {
+    ByteStorage memory = new ByteStorage(BatchRunner.MEMORY_SIZE);
+    memory.importFromBinary(countTo(7));
+
+    BatchRunner.Result binary =
+        BatchRunner.run(BatchRunner.Job.ofBinary("a", countTo(7), OPTIONS));
+    BatchRunner.Result base64 =
+        BatchRunner.run(BatchRunner.Job.ofBase64("b", memory.exportAsBase64(), OPTIONS));
+
+    assertEquals(binary.run().steps(), base64.run().steps());
+    assertEquals(binary.output(), base64.output());
+    assertArrayEquals(binary.memory(), base64.memory());
+  }
+
+  @Test
+  void testStepBudgetIsPerJob() {
+    RunOptions tight = RunOptions.unlimited().withMaxSteps(10);
+    try (BatchRunner runner = new BatchRunner(2)) {
+      List<BatchRunner.Result> results =
+          runner.runAll(
+              List.of(
+                  BatchRunner.Job.ofBinary("tight", countTo(50), tight),
+                  BatchRunner.Job.ofBinary("loose", countTo(50), OPTIONS)));
+
+      assertEquals(RunResult.Reason.STEP_LIMIT, results.get(0).run().reason());
+      assertEquals(10, results.get(0).run().steps());
+      assertEquals(RunResult.Reason.HALTED, results.get(1).run().reason());
+    }
+  }
+
+  @Test
+  void testInvalidImageIsReportedAsError() {
+    BatchRunner.Result result = BatchRunner.run(BatchRunner.Job.ofBase64("bad", "!!", OPTIONS));
+
+    assertEquals(RunResult.Reason.ERROR, result.run().reason());
+    assertEquals(0, result.run().steps());
+    assertInstanceOf(IllegalArgumentException.class, result.run().error());
+  }
+
+  @Test
+  void testJobRequiresExactlyOneImage() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new BatchRunner.Job("none", null, null, OPTIONS));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new BatchRunner.Job("both", new String[0], "", OPTIONS));
+  }
+}
@@ -0,0 +1,9 @@
+package model;
+
+class BlockEngineTest extends AbstractEngineTest {
+
+  @Override
+  RunOptions.Engine engine() {
+    return RunOptions.Engine.BLOCK;
+  }
+}
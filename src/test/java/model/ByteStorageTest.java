@@ -1,25 +1,39 @@
 package model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import util.Range;
 
+/** Tests of {@link ByteStorage}, and of the other storages in the subclasses of this test. */
 class ByteStorageTest {
 
-  private ByteStorage store;
-  private ByteStorage bigstore;
+  private AbstractStorage store;
+  private AbstractStorage bigstore;
   private int memorySize = 10;
 
+  /** Create a storage of the tested implementation. */
+  AbstractStorage createStorage(int size) {
+    return new ByteStorage(size);
+  }
+
   @BeforeEach
   void setUp() {
-    store = new ByteStorage(memorySize);
-    bigstore = new ByteStorage(128);
+    store = createStorage(memorySize);
+    bigstore = createStorage(128);
   }
 
   @Test
@@ -78,6 +92,149 @@ class ByteStorageTest {
     verify(listener2, times(1)).onStorageChanged(eq(address), eq(new int[] {value}));
   }
 
+  @Test
+  void testListenersAreNotifiedInOrderOfAdding() {
+    List<String> calls = new ArrayList<>();
+    store.addListener((startIdx, values) -> calls.add("first"));
+    store.addListener((startIdx, values) -> calls.add("second"));
+
+    store.setValueAt(1, 50);
+
+    assertEquals(List.of("first", "second"), calls);
+  }
+
+  @Test
+  void testListenerAddedDuringNotificationIsNotifiedOfLaterChanges() {
+    StorageListener added = mock(StorageListener.class);
+    store.addListener((startIdx, values) -> store.addListener(added));
+
+    store.setValueAt(1, 50);
+    verify(added, never()).onStorageChanged(anyInt(), any());
+
+    store.setValueAt(2, 60);
+    verify(added).onStorageChanged(eq(2), eq(new int[] {60}));
+  }
+
+  @Test
+  void testTimingHookIsToldAboutEveryListener() {
+    StorageListener listener1 = mock(StorageListener.class);
+    StorageListener listener2 = mock(StorageListener.class);
+    store.addListener(listener1);
+    store.addListener(listener2);
+    List<Object> timed = new ArrayList<>();
+    store.setListenerTimingHook((listener, nanos) -> timed.add(listener));
+
+    store.setValueAt(1, 50);
+    store.setListenerTimingHook(null);
+    store.setValueAt(2, 60);
+
+    assertEquals(List.of(listener1, listener2), timed);
+  }
+
+  @Test
+  void testDetachedListenersAreNotifiedOncePerRange() {
+    StorageListener listener = mock(StorageListener.class);
+    store.addListener(listener);
+
+    store.detachListeners();
+    store.setValueAt(1, 10);
+    store.setValueAt(2, 20);
+    store.setValueAt(1, 11);
+    store.setValuesInRange(new Range(5, 7), new int[] {50, 60});
+    store.setValueAt(7, 70);
+    verify(listener, never()).onStorageChanged(anyInt(), any());
+
+    store.attachListeners();
+    verify(listener).onStorageChanged(eq(1), eq(new int[] {11, 20}));
+    verify(listener).onStorageChanged(eq(5), eq(new int[] {50, 60, 70}));
+    verifyNoMoreInteractions(listener);
+
+    store.setValueAt(3, 30);
+    verify(listener).onStorageChanged(eq(3), eq(new int[] {30}));
+  }
+
+  @Test
+  void testAttachWithoutDetachDoesNotNotify() {
+    StorageListener listener = mock(StorageListener.class);
+    store.addListener(listener);
+    store.attachListeners();
+    verify(listener, never()).onStorageChanged(anyInt(), any());
+  }
+
+  @Test
+  void testBatchNotifiesOnceWithMergedChanges() {
+    StorageListener listener = mock(StorageListener.class);
+    store.addListener(listener);
+
+    store.beginBatch();
+    store.setValueAt(2, 20);
+    store.setValuesInRange(new Range(5, 7), new int[] {50, 60});
+    store.setValueAt(2, 21);
+    verify(listener, never()).onStorageChanged(anyInt(), any());
+
+    store.commit();
+    verify(listener).onStorageChanged(eq(2), eq(new int[] {21, 0, 0, 50, 60}));
+    verifyNoMoreInteractions(listener);
+
+    store.setValueAt(3, 30);
+    verify(listener).onStorageChanged(eq(3), eq(new int[] {30}));
+  }
+
+  @Test
+  void testNestedBatchesNotifyOnOutermostCommit() {
+    StorageListener listener = mock(StorageListener.class);
+    store.addListener(listener);
+
+    store.beginBatch();
+    store.setValueAt(1, 10);
+    store.beginBatch();
+    store.reset();
+    store.setValueAt(4, 40);
+    store.commit();
+    verify(listener, never()).onStorageChanged(anyInt(), any());
+
+    store.commit();
+    verify(listener).onStorageChanged(eq(0), eq(new int[] {0, 0, 0, 0, 40, 0, 0, 0, 0, 0}));
+    verifyNoMoreInteractions(listener);
+  }
+
+  @Test
+  void testEmptyBatchDoesNotNotify() {
+    StorageListener listener = mock(StorageListener.class);
+    store.addListener(listener);
+    store.beginBatch();
+    store.commit();
+    verify(listener, never()).onStorageChanged(anyInt(), any());
+  }
+
+  @Test
+  void testCommitWithoutBatchThrows() {
+    assertThrows(IllegalStateException.class, store::commit);
+  }
+
+  @Test
+  void testBatchWhileDetachedIsDeliveredOnAttach() {
+    StorageListener listener = mock(StorageListener.class);
+    store.addListener(listener);
+
+    store.detachListeners();
+    store.beginBatch();
+    store.setValueAt(1, 10);
+    store.commit();
+    verify(listener, never()).onStorageChanged(anyInt(), any());
+    store.attachListeners();
+    verify(listener).onStorageChanged(eq(1), eq(new int[] {10}));
+
+    store.beginBatch();
+    store.detachListeners();
+    store.setValueAt(2, 20);
+    store.attachListeners();
+    verify(listener, never()).onStorageChanged(eq(2), any());
+    store.commit();
+    verify(listener).onStorageChanged(eq(2), eq(new int[] {20}));
+    verifyNoMoreInteractions(listener);
+  }
+
   @Test
   void testReset() {
     StorageListener listener = mock(StorageListener.class);
@@ -227,4 +384,81 @@ class ByteStorageTest {
     // Verify third range
     for (int i = 90; i < 107; i++) assertEquals(i + 1, bigstore.getValueAt(i));
   }
+
+  @Test
+  void testFingerprintOfEmptyStorageIsZero() {
+    assertEquals(0, store.fingerprint());
+    store.setValueAt(3, 42);
+    store.reset();
+    assertEquals(0, store.fingerprint());
+  }
+
+  @Test
+  void testFingerprintIsRestoredWhenValueIsRestored() {
+    store.setValueAt(2, 17);
+    long fingerprint = store.fingerprint();
+
+    store.setValueAt(5, 99);
+    assertNotEquals(fingerprint, store.fingerprint());
+    store.setValueAt(5, 0);
+    assertEquals(fingerprint, store.fingerprint());
+  }
+
+  @Test
+  void testFingerprintDependsOnAddressAndValue() {
+    AbstractStorage other = createStorage(memorySize);
+    store.setValueAt(1, 7);
+    other.setValueAt(2, 7);
+    assertNotEquals(store.fingerprint(), other.fingerprint());
+
+    other.setValueAt(2, 0);
+    other.setValueAt(1, 8);
+    assertNotEquals(store.fingerprint(), other.fingerprint());
+  }
+
+  @Test
+  void testFingerprintOnlyUsesLowestEightBits() {
+    AbstractStorage other = createStorage(memorySize);
+    store.setValueAt(4, 256 + 3);
+    other.setValueAt(4, 3);
+    assertEquals(store.fingerprint(), other.fingerprint());
+  }
+
+  @Test
+  void testIncrementalFingerprintMatchesBulkOperations() {
+    // Build the same contents in different ways, and compare with a freshly imported storage
+    bigstore.setValuesInRange(new Range(10, 13), new int[] {1, 2, 3});
+    bigstore.setValueAt(40, 200);
+    bigstore.moveCellsDown(10, 13);
+    bigstore.moveCellsUp(40, 41);
+    bigstore.deleteCells(0, 1);
+
+    AbstractStorage imported = createStorage(bigstore.size());
+    imported.importFromBase64(bigstore.exportAsBase64());
+    assertEquals(imported.fingerprint(), bigstore.fingerprint());
+
+    AbstractStorage fromBinary = createStorage(bigstore.size());
+    String[] binary = bigstore.exportAsBinary();
+    for (int i = 0; i < binary.length; i++) {
+      binary[i] = binary[i].replace(" ", ""); // Same as when reading files
+    }
+    fromBinary.importFromBinary(binary);
+    assertEquals(fromBinary.fingerprint(), bigstore.fingerprint());
+
+    // Overwrite a range incrementally, and compare with single writes
+    bigstore.setValuesInRange(new Range(9, 12), new int[] {0, 5, 6});
+    imported.setValueAt(9, 0);
+    imported.setValueAt(10, 5);
+    imported.setValueAt(11, 6);
+    assertEquals(imported.fingerprint(), bigstore.fingerprint());
+  }
+
+  @Test
+  void testRegisterFingerprintDiffersFromMemoryFingerprint() {
+    RegStorage registers = new RegStorage();
+    AbstractStorage memory = createStorage(registers.size());
+    registers.setValueAt(3, 12);
+    memory.setValueAt(3, 12);
+    assertNotEquals(registers.fingerprint(), memory.fingerprint());
+  }
 }
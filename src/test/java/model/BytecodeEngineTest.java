@@ -0,0 +1,52 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BytecodeEngineTest extends AbstractEngineTest {
+
+  // Rewrites the operand of its first instruction in every iteration
+  private static final int[] SELF_MODIFYING_LOOP = {
+    0b0101_0000, // LD R0
+    0b0000_0000, // = 0, replaced by R0 + 1
+    0b0011_0000, // INC R0
+    0b0111_0000, // ST R0
+    0b0000_0001, // -> m[1]
+    0b0011_0010, // INC R2
+    0b0101_0001, // LD R1
+    0b0000_0000, // = 0
+    0b1001_0001 // JMP *R1
+  };
+
+  @Override
+  RunOptions.Engine engine() {
+    return RunOptions.Engine.COMPILED;
+  }
+
+  @Test
+  void testSelfModifyingLoopMatchesInterpreter() {
+    // Long enough for several recompilations
+    int steps = 10 * BytecodeEngine.RECOMPILE_THRESHOLD * SELF_MODIFYING_LOOP.length;
+    assertSameRun(256, SELF_MODIFYING_LOOP, INTERPRETER.withMaxSteps(steps));
+    assertSameRun(256, SELF_MODIFYING_LOOP, INTERPRETER.withMaxSteps(steps + 3));
+  }
+
+  @Test
+  void testTimeLimitStopsCompiledCode() {
+    int[] program = {
+      0b0011_0001, // INC R1
+      0b1001_0000 // JMP *R0
+    };
+    Machine machine = new Machine(256, program);
+    RunResult result =
+        machine.cpu.run(
+            engineOptions().withMaxSteps(RunOptions.UNLIMITED).withMaxNanos(50_000_000));
+
+    assertEquals(RunResult.Reason.TIME_LIMIT, result.reason());
+    assertTrue(result.steps() > 0);
+    long increments = (result.steps() + 1) / 2;
+    assertEquals(increments % 256, machine.cpu.getRegistry().getRegister(Registry.REG_R1));
+  }
+}
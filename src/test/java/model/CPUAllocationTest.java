@@ -0,0 +1,98 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import instruction.InstructionFactory;
+import io.IOModule;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Runs in a separate JVM, see the allocationTest task in build.gradle. */
+@Tag("allocation")
+class CPUAllocationTest {
+
+  private static final int WARMUP_STEPS = 200_000;
+  private static final int MEASURED_STEPS = 1_000_000;
+
+  @Test
+  void testStepDoesNotAllocate() {
+    assertStepsDoNotAllocate(null, null);
+  }
+
+  @Test
+  void testTracedStepDoesNotAllocate() {
+    TraceRecorder tracer = new TraceRecorder(1 << 16);
+    assertStepsDoNotAllocate(tracer, null);
+    assertEquals(WARMUP_STEPS + MEASURED_STEPS, tracer.totalSteps());
+  }
+
+  @Test
+  void testProgramCounterListenerDoesNotAllocate() {
+    int[] changes = new int[1];
+    assertStepsDoNotAllocate(
+        null,
+        new ProgramCounterListener() {
+          @Override
+          public void onProgramCounterChanged(int oldIdx, int newIdx) {
+            changes[0]++;
+          }
+
+          @Override
+          public void onProgramCounterHalted(int reason) {}
+        });
+    // Every step moves the PC at least once
+    assertTrue(changes[0] >= WARMUP_STEPS + MEASURED_STEPS);
+  }
+
+  private static void assertStepsDoNotAllocate(
+      TraceRecorder tracer, ProgramCounterListener pcListener) {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(
+        bean instanceof com.sun.management.ThreadMXBean,
+        "Allocation counters are not available on this JVM.");
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+
+    ByteStorage memory = new ByteStorage(256);
+    CPU cpu = new CPU(memory, new InstructionFactory(), new IOModule());
+
+    // An endless loop that loads two values, adds them, stores the result and jumps back to 0.
+    int[] program = {
+      0b0101_0011, 5, // LD 5 -> OP1
+      0b0101_0100, 7, // LD 7 -> OP2
+      0b0001_0000, // ADD
+      0b0111_0101, 20, // ST RES -> m[20]
+      0b0011_0001, // INC R1
+      0b1001_0000 // JMP *R0
+    };
+    for (int i = 0; i < program.length; i++) {
+      memory.setValueAt(i, program[i]);
+    }
+
+    cpu.setTraceRecorder(tracer);
+    if (pcListener != null) {
+      cpu.getProgramCounter().addListener(pcListener);
+    }
+
+    // Let the JIT compile the interpreter path before measuring
+    for (int i = 0; i < WARMUP_STEPS; i++) {
+      cpu.step();
+    }
+
+    long threadId = Thread.currentThread().threadId();
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < MEASURED_STEPS; i++) {
+      cpu.step();
+    }
+    long after = threadBean.getThreadAllocatedBytes(threadId);
+
+    // The measurement itself may allocate a few bytes, but nothing that scales with the number of
+    // executed steps.
+    assertEquals(0, (after - before) / MEASURED_STEPS, "Bytes allocated per step");
+    assertEquals(12, memory.getValueAt(20));
+  }
+}
@@ -1,12 +1,19 @@
 package model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import instruction.Hlt;
@@ -14,8 +21,13 @@ import instruction.Instruction;
 import instruction.InstructionFactory;
 import instruction.Nop;
 import io.IO;
+import io.IOModule;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import util.Range;
 
 class CPUTest {
 
@@ -29,6 +41,7 @@ class CPUTest {
   void setUp() {
     memory = mock(Memory.class);
     when(memory.size()).thenReturn(256);
+    when(memory.width()).thenReturn(WordWidth.NARROW);
     factory = mock(InstructionFactory.class);
     io = mock(IO.class);
     cpu = new CPU(memory, factory, io);
@@ -68,6 +81,22 @@ class CPUTest {
     verify(halt).execute(eq(memory), any(Registry.class), eq(pc), eq(io));
   }
 
+  @Test
+  void testIoIsFlushedWhenRunStopsAndStepHalts() {
+    when(memory.getValueAt(any(int.class))).thenReturn(InstructionFactory.INST_NOP);
+    Instruction nop = mock(Nop.class);
+    when(factory.createInstruction(InstructionFactory.INST_NOP)).thenReturn(nop);
+
+    cpu.step();
+    verify(io, never()).flush();
+    cpu.run(RunOptions.unlimited().withMaxSteps(3));
+    verify(io).flush();
+
+    when(factory.createInstruction(InstructionFactory.INST_NOP)).thenReturn(new Hlt(0));
+    cpu.step();
+    verify(io, times(2)).flush();
+  }
+
   @Test
   void testStepWithCPUHaltedThrowsException() {
     pc.halt(ProgramCounter.NORMAL_HALT);
@@ -111,4 +140,284 @@ class CPUTest {
     cpu.getRegistry().setValueAt(5, 12);
     verify(listener, times(1)).onStorageChanged(5, new int[] {12});
   }
+
+  // Counts R1 up to 250, with two NOPs in the loop body. Executes 1003 steps before halting.
+  private static final int[] LONG_LOOP = {
+    0b0101_0010, 250, // LD 250 -> R2
+    0b0101_0101, 4, // LD 4 -> RES
+    0b0000_0000, // NOP
+    0b0000_0000, // NOP
+    0b0011_0001, // INC R1
+    0b1010_0010, 0b0001_0010, // CJP (R1 != R2 -> *RES)
+    0b1110_0000 // HLT
+  };
+
+  // Increments R1 forever
+  private static final int[] ENDLESS_LOOP = {
+    0b0011_0001, // INC R1
+    0b1001_0000 // JMP *R0
+  };
+
+  private static CPU cpuWithProgram(int... program) {
+    ByteStorage mem = new ByteStorage(256);
+    for (int i = 0; i < program.length; i++) {
+      mem.setValueAt(i, program[i]);
+    }
+    return new CPU(mem, new InstructionFactory(), new IOModule());
+  }
+
+  @Test
+  void testDetachedRunOnlyNotifiesFinalState() {
+    ByteStorage mem = new ByteStorage(256);
+    int[] program = {
+      0b0101_0010, 250, // LD 250 -> R2
+      0b0101_0101, 4, // LD 4 -> RES
+      0b0011_0001, // INC R1
+      0b1010_0010, 0b0001_0010, // CJP (R1 != R2 -> *RES)
+      0b0111_0001, 200, // ST R1 -> 200
+      0b1110_0000 // HLT
+    };
+    mem.setValuesInRange(new Range(0, program.length), program);
+    CPU detachedCpu = new CPU(mem, new InstructionFactory(), new IOModule());
+    StorageListener memoryListener = mock(StorageListener.class);
+    StorageListener registryListener = mock(StorageListener.class);
+    ProgramCounterListener pcListener = mock(ProgramCounterListener.class);
+    mem.addListener(memoryListener);
+    detachedCpu.addRegistryListener(registryListener);
+    detachedCpu.getProgramCounter().addListener(pcListener);
+
+    RunResult result = detachedCpu.run(RunOptions.unlimited().withDetached(true));
+
+    assertEquals(RunResult.Reason.HALTED, result.reason());
+    assertEquals(504, result.steps());
+    verify(memoryListener).onStorageChanged(200, new int[] {250});
+    verifyNoMoreInteractions(memoryListener);
+    verify(registryListener).onStorageChanged(1, new int[] {250, 250}); // R1 and R2
+    verify(registryListener).onStorageChanged(5, new int[] {4}); // RES
+    verify(registryListener).onStorageChanged(7, new int[] {9}); // PC
+    verifyNoMoreInteractions(registryListener);
+    verify(pcListener).onProgramCounterChanged(0, 9);
+    verify(pcListener).onProgramCounterHalted(ProgramCounter.NORMAL_HALT);
+    verifyNoMoreInteractions(pcListener);
+
+    // Listeners are attached again after the run
+    mem.setValueAt(201, 1);
+    verify(memoryListener).onStorageChanged(201, new int[] {1});
+  }
+
+  @Test
+  void testTraceShowsStepsBeforeEndOfMemory() {
+    CPU tracedCpu =
+        cpuWithProgram(
+            0b0101_0011, 5, // LD 5 -> OP1
+            0b0011_0011, // INC OP1
+            0b0111_0011, 200, // ST OP1 -> m[200]
+            0b0100_0001, 0b0011_0001 // CPY OP1 -> R1 (move)
+            );
+    TraceRecorder tracer = new TraceRecorder(1024);
+    tracedCpu.setTraceRecorder(tracer);
+
+    // Engines are not used while tracing
+    RunResult result = tracedCpu.run(RunOptions.unlimited().withEngine(RunOptions.Engine.BLOCK));
+
+    assertEquals(RunResult.Reason.END_OF_MEMORY, result.reason());
+    assertEquals(result.steps(), tracer.totalSteps());
+    long[] entries = tracer.last(1024);
+    assertEquals(result.steps(), entries.length);
+    assertEquals(
+        List.of(
+            "  0: 53 05 LD   OP1=5",
+            "  2: 33 73 INC  OP1=6",
+            "  3: 73 C8 ST   [200]=6",
+            "  5: 41 31 CPY  R1=6",
+            "  7: 00 00 NOP"),
+        tracer.lastSteps(1024).subList(0, 5));
+    assertEquals(255, TraceRecorder.pc(entries[entries.length - 1]));
+  }
+
+  @Test
+  void testTraceRecordsDestinationOfMove() {
+    CPU tracedCpu =
+        cpuWithProgram(
+            0b0101_0000, 5, // LD 5 -> R0
+            0b0100_0001, 0b0000_0001 // CPY R0 -> R1 (move), which then clears R0
+            );
+    TraceRecorder tracer = new TraceRecorder(16);
+    tracedCpu.setTraceRecorder(tracer);
+
+    tracedCpu.step();
+    tracedCpu.step();
+
+    long[] entries = tracer.last(2);
+    assertEquals(Registry.IDX_R0, TraceRecorder.register(entries[0]));
+    assertEquals(Registry.IDX_R1, TraceRecorder.register(entries[1]));
+    assertEquals(5, TraceRecorder.registerValue(entries[1]));
+  }
+
+  @Test
+  void testTraceRecordsFailingInstruction() {
+    // JMP to the address in register 15, which does not exist
+    CPU errorCpu = cpuWithProgram(0b0000_0000, 0b1001_1111);
+    TraceRecorder tracer = new TraceRecorder(16);
+    errorCpu.setTraceRecorder(tracer);
+
+    RunResult result = errorCpu.run(RunOptions.unlimited());
+
+    assertEquals(RunResult.Reason.ERROR, result.reason());
+    long[] entries = tracer.last(16);
+    assertEquals(2, entries.length);
+    assertFalse(TraceRecorder.failed(entries[0]));
+    assertTrue(TraceRecorder.failed(entries[1]));
+    assertEquals(1, TraceRecorder.pc(entries[1]));
+    assertEquals(0b1001_1111, TraceRecorder.instruction(entries[1]));
+  }
+
+  @Test
+  void testRunAbortsLongProgramAfterDefaultBudget() {
+    CPU longCpu = cpuWithProgram(LONG_LOOP);
+    assertThrows(IllegalStateException.class, () -> longCpu.run());
+  }
+
+  @Test
+  void testRunWithOptionsCompletesLongProgram() {
+    CPU longCpu = cpuWithProgram(LONG_LOOP);
+    RunResult result = longCpu.run(RunOptions.unlimited());
+
+    assertEquals(RunResult.Reason.HALTED, result.reason());
+    assertTrue(result.isHalted());
+    assertEquals(1003, result.steps());
+    assertEquals(250, longCpu.getRegistry().getRegister(Registry.REG_R1));
+    assertNull(result.error());
+  }
+
+  @Test
+  void testRunWithOptionsStopsAtStepLimit() {
+    CPU loopCpu = cpuWithProgram(ENDLESS_LOOP);
+    RunResult result = loopCpu.run(RunOptions.unlimited().withMaxSteps(101));
+
+    assertEquals(RunResult.Reason.STEP_LIMIT, result.reason());
+    assertFalse(result.isHalted());
+    assertEquals(101, result.steps());
+    assertEquals(51, loopCpu.getRegistry().getRegister(Registry.REG_R1));
+
+    // The run can be resumed where it stopped
+    result = loopCpu.run(RunOptions.unlimited().withMaxSteps(1));
+    assertEquals(1, result.steps());
+    assertEquals(0, loopCpu.getProgramCounter().getCurrentIndex());
+  }
+
+  @Test
+  void testRunWithOptionsStopsAtTimeLimit() {
+    CPU loopCpu = cpuWithProgram(ENDLESS_LOOP);
+    RunResult result = loopCpu.run(RunOptions.unlimited().withTimeout(20, TimeUnit.MILLISECONDS));
+
+    assertEquals(RunResult.Reason.TIME_LIMIT, result.reason());
+    assertTrue(result.steps() > 0);
+    assertTrue(result.elapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+  }
+
+  @Test
+  void testRunWithOptionsStopsWhenCancelled() throws InterruptedException {
+    CPU loopCpu = cpuWithProgram(ENDLESS_LOOP);
+    AtomicBoolean cancellation = new AtomicBoolean();
+    Thread canceller =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(20);
+              } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+              }
+              cancellation.set(true);
+            });
+    canceller.start();
+    RunResult result = loopCpu.run(RunOptions.unlimited().withCancellation(cancellation));
+    canceller.join();
+
+    assertEquals(RunResult.Reason.CANCELLED, result.reason());
+    assertTrue(result.steps() > 0);
+    // Cancelled between two instructions, so the PC is at one of them
+    int pcIndex = loopCpu.getProgramCounter().getCurrentIndex();
+    assertTrue(pcIndex == 0 || pcIndex == 1);
+  }
+
+  @Test
+  void testRunWithOptionsCancelledBeforeStartExecutesNothing() {
+    CPU loopCpu = cpuWithProgram(ENDLESS_LOOP);
+    RunResult result =
+        loopCpu.run(RunOptions.unlimited().withCancellation(new AtomicBoolean(true)));
+
+    assertEquals(RunResult.Reason.CANCELLED, result.reason());
+    assertEquals(0, result.steps());
+    assertEquals(0, loopCpu.getRegistry().getRegister(Registry.REG_R1));
+  }
+
+  @Test
+  void testRunWithOptionsReportsEndOfMemory() {
+    CPU emptyCpu = cpuWithProgram();
+    RunResult result = emptyCpu.run(RunOptions.unlimited());
+
+    assertEquals(RunResult.Reason.END_OF_MEMORY, result.reason());
+    assertEquals(256, result.steps());
+    assertTrue(emptyCpu.getProgramCounter().isHalted());
+  }
+
+  @Test
+  void testRunWithOptionsReportsErrorWithoutThrowing() {
+    // JMP to the address in register 15, which does not exist
+    CPU errorCpu = cpuWithProgram(0b0000_0000, 0b1001_1111);
+    RunResult result = errorCpu.run(RunOptions.unlimited());
+
+    assertEquals(RunResult.Reason.ERROR, result.reason());
+    assertEquals(2, result.steps());
+    assertInstanceOf(RuntimeException.class, result.error());
+  }
+
+  @Test
+  void testRunWithOptionsWithCPUHaltedReturnsPreviousHalt() {
+    pc.halt(ProgramCounter.END_OF_MEMORY);
+    RunResult result = cpu.run(RunOptions.unlimited());
+
+    assertEquals(RunResult.Reason.END_OF_MEMORY, result.reason());
+    assertEquals(0, result.steps());
+  }
+
+  @Test
+  void testRunRethrowsInstructionError() {
+    CPU errorCpu = cpuWithProgram(0b1001_1111);
+    RuntimeException ex = assertThrows(RuntimeException.class, () -> errorCpu.run());
+    assertSame(ArrayIndexOutOfBoundsException.class, ex.getClass());
+  }
+
+  @Test
+  void testRunWithLoopDetectionProvesTwoInstructionLoop() {
+    CPU loopCpu = cpuWithProgram(0b0000_0000, 0b1001_0000); // NOP, JMP *R0
+    RunResult result = loopCpu.run(RunOptions.unlimited().withLoopDetection(true));
+
+    assertEquals(RunResult.Reason.INFINITE_LOOP, result.reason());
+    assertEquals(2, result.cycleLength());
+    assertTrue(result.steps() <= 4);
+    assertTrue(result.message().contains("cycle length 2"));
+  }
+
+  @Test
+  void testRunWithLoopDetectionProvesLoopWithChangingState() {
+    // R1 wraps around after 256 increments, so the state repeats every 512 steps
+    CPU loopCpu = cpuWithProgram(ENDLESS_LOOP);
+    RunResult result = loopCpu.run(RunOptions.unlimited().withLoopDetection(true));
+
+    assertEquals(RunResult.Reason.INFINITE_LOOP, result.reason());
+    assertEquals(512, result.cycleLength());
+    assertTrue(result.steps() < 2048);
+  }
+
+  @Test
+  void testRunWithLoopDetectionLetsHaltingProgramFinish() {
+    CPU longCpu = cpuWithProgram(LONG_LOOP);
+    RunResult result = longCpu.run(RunOptions.unlimited().withLoopDetection(true));
+
+    assertEquals(RunResult.Reason.HALTED, result.reason());
+    assertEquals(1003, result.steps());
+    assertEquals(0, result.cycleLength());
+  }
 }
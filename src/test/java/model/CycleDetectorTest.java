@@ -0,0 +1,42 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class CycleDetectorTest {
+
+  // Every state has the same fingerprint, so only the exact comparison tells states apart
+  private static class CollidingStorage extends BankedStorage {
+
+    CollidingStorage() {
+      super(2, 128);
+    }
+
+    @Override
+    public long fingerprint() {
+      return 0;
+    }
+  }
+
+  @Test
+  void testRepeatedStateIsConfirmed() {
+    CycleDetector detector = new CycleDetector(new CollidingStorage(), new RegStorage());
+
+    assertEquals(1, detector.afterSteps(1));
+  }
+
+  @Test
+  void testStateThatDiffersInAHiddenBankIsNotConfirmed() {
+    CollidingStorage memory = new CollidingStorage();
+    RegStorage registry = new RegStorage();
+    CycleDetector detector = new CycleDetector(memory, registry);
+
+    // Only bank 1 differs once bank 0 is visible again
+    memory.selectBank(1);
+    memory.setValueAt(200, 1);
+    memory.selectBank(0);
+
+    assertEquals(0, detector.afterSteps(1));
+  }
+}
@@ -0,0 +1,69 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Runs the tests of {@link ByteStorageTest} on a {@link MappedStorage}. */
+class MappedStorageTest extends ByteStorageTest {
+
+  @TempDir Path dir;
+  private int images;
+
+  @Override
+  AbstractStorage createStorage(int size) {
+    try {
+      return MappedStorage.open(dir.resolve("image" + images++ + ".img"), size);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  @Test
+  void testWritesAreVisibleInTheFile() throws IOException {
+    Path file = dir.resolve("live.img");
+    MappedStorage storage = MappedStorage.open(file, 4);
+    storage.setValueAt(1, 200);
+    storage.force();
+
+    assertArrayEquals(new byte[] {0, (byte) 200, 0, 0}, Files.readAllBytes(file));
+  }
+
+  @Test
+  void testReopenedImageKeepsItsContents() throws IOException {
+    Path file = dir.resolve("saved.img");
+    MappedStorage storage = MappedStorage.open(file, 16, MappedStorage.SyncPolicy.EVERY_WRITE);
+    storage.importFromBase64("AQID");
+    storage.moveCellsDown(0, 3);
+
+    MappedStorage reopened = MappedStorage.open(file, 16);
+    assertEquals(storage.exportAsBase64(), reopened.exportAsBase64());
+    assertEquals(storage.fingerprint(), reopened.fingerprint());
+  }
+
+  @Test
+  void testShortImageIsExtendedWithZeros() throws IOException {
+    Path file = dir.resolve("short.img");
+    Files.write(file, new byte[] {5, 6});
+
+    MappedStorage storage = MappedStorage.open(file, 8);
+    assertEquals(6, storage.getValueAt(1));
+    assertEquals(0, storage.getValueAt(7));
+    assertEquals(8, Files.size(file));
+  }
+
+  @Test
+  void testImageLargerThanStorageThrows() throws IOException {
+    Path file = dir.resolve("large.img");
+    Files.write(file, new byte[20]);
+
+    assertThrows(IllegalArgumentException.class, () -> MappedStorage.open(file, 16));
+  }
+}
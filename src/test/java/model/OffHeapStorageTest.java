@@ -0,0 +1,37 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/** Runs the tests of {@link ByteStorageTest} on an {@link OffHeapStorage}. */
+class OffHeapStorageTest extends ByteStorageTest {
+
+  @Override
+  AbstractStorage createStorage(int size) {
+    return new OffHeapStorage(size);
+  }
+
+  @Test
+  void testStoragesOfASlabDoNotOverlap() {
+    OffHeapStorage.Slab slab = new OffHeapStorage.Slab(64);
+    OffHeapStorage first = slab.allocate(32);
+    OffHeapStorage second = slab.allocate(32);
+
+    first.setValueAt(31, 7);
+    second.setValueAt(0, 9);
+    second.deleteCells(0, 1);
+
+    assertEquals(7, first.getValueAt(31));
+    assertEquals(0, second.getValueAt(0));
+    assertEquals(0, slab.remaining());
+  }
+
+  @Test
+  void testFullSlabThrows() {
+    OffHeapStorage.Slab slab = new OffHeapStorage.Slab(16);
+    slab.allocate(10);
+    assertThrows(IllegalStateException.class, () -> slab.allocate(10));
+  }
+}
@@ -0,0 +1,32 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/** Runs the tests of {@link ByteStorageTest} on a {@link PackedStorage}. */
+class PackedStorageTest extends ByteStorageTest {
+
+  @Override
+  AbstractStorage createStorage(int size) {
+    return new PackedStorage(size);
+  }
+
+  @Test
+  void testValuesAreTruncatedOnWrite() {
+    PackedStorage storage = new PackedStorage(4);
+    storage.setValueAt(0, 300);
+    assertEquals(44, storage.getValueAt(0));
+    assertEquals(44, storage.getRawValueAt(0));
+  }
+
+  @Test
+  void testFingerprintMatchesByteStorage() {
+    ByteStorage bytes = new ByteStorage(16);
+    PackedStorage packed = new PackedStorage(16);
+    bytes.setValueAt(3, 200);
+    packed.setValueAt(3, 200);
+    assertEquals(bytes.fingerprint(), packed.fingerprint());
+    assertEquals(bytes.exportAsBase64(), packed.exportAsBase64());
+  }
+}
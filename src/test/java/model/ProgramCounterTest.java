@@ -6,6 +6,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -32,28 +34,28 @@ class ProgramCounterTest {
   void testSetAndGetCurrentIndex() {
     int testIndex = 10;
     pc.setCurrentIndex(testIndex);
-    verify(registry).setRegister(Registry.REG_PC, testIndex);
+    verify(registry).setRegister(Registry.IDX_PC, testIndex);
   }
 
   @Test
   void testNextReadPC() {
     pc.getCurrentIndex();
-    verify(registry).getRegister(Registry.REG_PC);
+    verify(registry).getRegister(Registry.IDX_PC);
   }
 
   @Test
   void testNextIncrementsPC() {
-    when(registry.getRegister(Registry.REG_PC)).thenReturn(0);
+    when(registry.getRegister(Registry.IDX_PC)).thenReturn(0);
     int nextIndex = pc.next();
     assertEquals(0, nextIndex, "Next should return the current index before incrementing it.");
-    verify(registry).setRegister(Registry.REG_PC, 1);
+    verify(registry).setRegister(Registry.IDX_PC, 1);
   }
 
   @Test
   void testJumpTo() {
     int newIndex = 20;
     pc.jumpTo(newIndex);
-    verify(registry).setRegister(Registry.REG_PC, newIndex);
+    verify(registry).setRegister(Registry.IDX_PC, newIndex);
   }
 
   @Test
@@ -77,7 +79,7 @@ class ProgramCounterTest {
 
   @Test
   void testAddListener() {
-    when(registry.getRegister(Registry.REG_PC)).thenReturn(0, 10, 11);
+    when(registry.getRegister(Registry.IDX_PC)).thenReturn(0, 10, 11);
 
     ProgramCounterListener listener1 = mock(ProgramCounterListener.class);
     ProgramCounterListener listener2 = mock(ProgramCounterListener.class);
@@ -91,9 +93,9 @@ class ProgramCounterTest {
     pc.next();
     pc.reset();
 
-    verify(registry).setRegister(Registry.REG_PC, 10);
-    verify(registry).setRegister(Registry.REG_PC, 11);
-    verify(registry).setRegister(Registry.REG_PC, 0);
+    verify(registry).setRegister(Registry.IDX_PC, 10);
+    verify(registry).setRegister(Registry.IDX_PC, 11);
+    verify(registry).setRegister(Registry.IDX_PC, 0);
 
     inOrder1.verify(listener1).onProgramCounterChanged(0, 10);
     inOrder1.verify(listener1).onProgramCounterChanged(10, 11);
@@ -119,4 +121,32 @@ class ProgramCounterTest {
     pc.halt(ProgramCounter.END_OF_MEMORY);
     verify(listener).onProgramCounterHalted(ProgramCounter.END_OF_MEMORY);
   }
+
+  @Test
+  void testDetachedChangesAreReportedOnce() {
+    when(registry.getRegister(Registry.IDX_PC)).thenReturn(3, 3, 4, 9, 9);
+    ProgramCounterListener listener = mock(ProgramCounterListener.class);
+    pc.addListener(listener);
+
+    pc.detachListeners();
+    pc.next();
+    pc.jumpTo(9);
+    pc.halt(ProgramCounter.NORMAL_HALT);
+    verifyNoInteractions(listener);
+
+    pc.attachListeners();
+    InOrder inOrder = inOrder(listener);
+    inOrder.verify(listener).onProgramCounterChanged(3, 9);
+    inOrder.verify(listener).onProgramCounterHalted(ProgramCounter.NORMAL_HALT);
+    verifyNoMoreInteractions(listener);
+  }
+
+  @Test
+  void testHaltReasonIsKeptUntilReset() {
+    pc.halt(ProgramCounter.END_OF_MEMORY);
+    assertEquals(ProgramCounter.END_OF_MEMORY, pc.getHaltReason());
+    pc.reset();
+    assertFalse(pc.isHalted());
+    assertEquals(ProgramCounter.NORMAL_HALT, pc.getHaltReason());
+  }
 }
@@ -42,4 +42,20 @@ class RegStorageTest {
     assertEquals(6, registry.getRegister(Registry.REG_R2));
     assertEquals(7, registry.getRegister(Registry.REG_OUT));
   }
+
+  @Test
+  void testIndexedAndNamedAccessAreTheSame() {
+    registry.setRegister(Registry.IDX_OP1, 1);
+    registry.setRegister(Registry.REG_RES, 2);
+
+    assertEquals(1, registry.getRegister(Registry.REG_OP1));
+    assertEquals(2, registry.getRegister(Registry.IDX_RES));
+  }
+
+  @Test
+  void testIndexedGetIsMasked() {
+    registry.setRegister(Registry.IDX_RES, -1);
+
+    assertEquals(0xFF, registry.getRegister(Registry.IDX_RES));
+  }
 }
@@ -36,6 +36,18 @@ class RegistryStaticTest {
     assertEquals(6, Registry.nameToIdx(Registry.REG_OUT));
   }
 
+  @Test
+  void testIndexConstantsMatchNames() {
+    assertEquals(Registry.IDX_R0, Registry.nameToIdx(Registry.REG_R0));
+    assertEquals(Registry.IDX_R1, Registry.nameToIdx(Registry.REG_R1));
+    assertEquals(Registry.IDX_R2, Registry.nameToIdx(Registry.REG_R2));
+    assertEquals(Registry.IDX_OP1, Registry.nameToIdx(Registry.REG_OP1));
+    assertEquals(Registry.IDX_OP2, Registry.nameToIdx(Registry.REG_OP2));
+    assertEquals(Registry.IDX_RES, Registry.nameToIdx(Registry.REG_RES));
+    assertEquals(Registry.IDX_OUT, Registry.nameToIdx(Registry.REG_OUT));
+    assertEquals(Registry.IDX_PC, Registry.nameToIdx(Registry.REG_PC));
+  }
+
   @Test
   void testInvalidNameToIdxThrowsException() {
     assertThrows(IllegalArgumentException.class, () -> Registry.nameToIdx("INVALID"));
@@ -0,0 +1,107 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SandboxExecutorTest {
+
+  // Increments R1 forever
+  private static final String[] ENDLESS_LOOP = {
+    "00110001", // INC R1
+    "10010000" // JMP *R0
+  };
+
+  // Increments R1 five times, then halts
+  private static final String[] SHORT_PROGRAM = {
+    "00110001", "00110001", "00110001", "00110001", "00110001", "11100000"
+  };
+
+  @Test
+  void testCancelledRunReportsStepAndPc() throws Exception {
+    try (SandboxExecutor sandbox = new SandboxExecutor()) {
+      SandboxExecutor.Submission submission =
+          sandbox.submit(BatchRunner.Job.ofBinary("loop", ENDLESS_LOOP, RunOptions.unlimited()));
+      Thread.sleep(20);
+      submission.cancel();
+
+      BatchRunner.Result result = submission.result().get(5, TimeUnit.SECONDS);
+      assertEquals(RunResult.Reason.CANCELLED, result.run().reason());
+      assertTrue(result.run().steps() > 0);
+      assertEquals(
+          String.format("Cancelled at step %d, PC=%d.", result.run().steps(), result.pc()),
+          result.message());
+      // INC R1 is executed every other step
+      long increments = (result.run().steps() + 1) / 2;
+      assertEquals(increments % 256, result.registers()[Registry.nameToIdx(Registry.REG_R1)]);
+    }
+  }
+
+  @Test
+  void testCancelBeforeStartExecutesNothing() throws Exception {
+    try (SandboxExecutor sandbox = new SandboxExecutor()) {
+      SandboxExecutor.Submission submission =
+          sandbox.submit(
+              BatchRunner.Job.ofBinary(
+                  "loop", ENDLESS_LOOP, RunOptions.unlimited().withMaxSteps(1L << 40)));
+      submission.cancel();
+
+      BatchRunner.Result result = submission.result().get(5, TimeUnit.SECONDS);
+      assertEquals(RunResult.Reason.CANCELLED, result.run().reason());
+    }
+  }
+
+  @Test
+  void testDeadlinesAreEnforcedPerProgram() throws Exception {
+    try (SandboxExecutor sandbox = new SandboxExecutor()) {
+      SandboxExecutor.Submission timed =
+          sandbox.submit(
+              BatchRunner.Job.ofBinary(
+                  "timed",
+                  ENDLESS_LOOP,
+                  RunOptions.unlimited().withTimeout(20, TimeUnit.MILLISECONDS)));
+      SandboxExecutor.Submission stepped =
+          sandbox.submit(
+              BatchRunner.Job.ofBinary(
+                  "stepped", ENDLESS_LOOP, RunOptions.unlimited().withMaxSteps(1000)));
+
+      assertEquals(
+          RunResult.Reason.TIME_LIMIT, timed.result().get(5, TimeUnit.SECONDS).run().reason());
+      BatchRunner.Result result = stepped.result().get(5, TimeUnit.SECONDS);
+      assertEquals(RunResult.Reason.STEP_LIMIT, result.run().reason());
+      assertEquals(1000, result.run().steps());
+    }
+  }
+
+  @Test
+  void testManyConcurrentLongRunsDoNotStarveShortOnes() throws Exception {
+    try (SandboxExecutor sandbox = new SandboxExecutor()) {
+      List<BatchRunner.Job> jobs = new ArrayList<>();
+      // More endless programs than there are carrier threads
+      int loops = Runtime.getRuntime().availableProcessors() * 4;
+      for (int i = 0; i < loops; i++) {
+        jobs.add(BatchRunner.Job.ofBinary("loop" + i, ENDLESS_LOOP, RunOptions.unlimited()));
+      }
+      for (int i = 0; i < 1000; i++) {
+        jobs.add(BatchRunner.Job.ofBinary("short" + i, SHORT_PROGRAM, RunOptions.unlimited()));
+      }
+      List<SandboxExecutor.Submission> submissions = sandbox.submitAll(jobs);
+
+      for (SandboxExecutor.Submission submission : submissions.subList(loops, jobs.size())) {
+        BatchRunner.Result result = submission.result().get(10, TimeUnit.SECONDS);
+        assertEquals(RunResult.Reason.HALTED, result.run().reason());
+        assertEquals(5, result.registers()[Registry.nameToIdx(Registry.REG_R1)]);
+      }
+      for (SandboxExecutor.Submission submission : submissions.subList(0, loops)) {
+        submission.cancel();
+        assertEquals(
+            RunResult.Reason.CANCELLED,
+            submission.result().get(5, TimeUnit.SECONDS).run().reason());
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TraceRecorderTest {
+
+  @Test
+  void testPackedFieldsAreKept() {
+    long entry = TraceRecorder.pack(255, 0x75, 0x14, 6, 200, 20, 255, true);
+
+    assertEquals(255, TraceRecorder.pc(entry));
+    assertEquals(0x75, TraceRecorder.instruction(entry));
+    assertEquals(0x14, TraceRecorder.operand(entry));
+    assertEquals(6, TraceRecorder.register(entry));
+    assertEquals(200, TraceRecorder.registerValue(entry));
+    assertEquals(20, TraceRecorder.address(entry));
+    assertEquals(255, TraceRecorder.memoryValue(entry));
+    assertTrue(TraceRecorder.failed(entry));
+  }
+
+  @Test
+  void testMissingChangesArePacked() {
+    long entry = TraceRecorder.pack(3, 0, 0, -1, 0, -1, 0, false);
+
+    assertEquals(3, TraceRecorder.pc(entry));
+    assertEquals(-1, TraceRecorder.register(entry));
+    assertEquals(-1, TraceRecorder.address(entry));
+    assertFalse(TraceRecorder.failed(entry));
+  }
+
+  @Test
+  void testRegisterZeroAndAddressZeroAreChanges() {
+    long entry = TraceRecorder.pack(0, 0, 0, 0, 0, 0, 0, false);
+
+    assertEquals(0, TraceRecorder.register(entry));
+    assertEquals(0, TraceRecorder.address(entry));
+  }
+
+  @Test
+  void testLastEntriesAreOldestFirst() {
+    TraceRecorder recorder = new TraceRecorder(4);
+    for (int pc = 0; pc < 3; pc++) {
+      recorder.record(TraceRecorder.pack(pc, 0, 0, -1, 0, -1, 0, false));
+    }
+
+    assertEquals(3, recorder.totalSteps());
+    assertArrayEquals(new int[] {0, 1, 2}, pcs(recorder.last(10)));
+    assertArrayEquals(new int[] {1, 2}, pcs(recorder.last(2)));
+  }
+
+  @Test
+  void testOldestEntriesAreOverwritten() {
+    TraceRecorder recorder = new TraceRecorder(4);
+    for (int pc = 0; pc < 10; pc++) {
+      recorder.record(TraceRecorder.pack(pc, 0, 0, -1, 0, -1, 0, false));
+    }
+
+    assertEquals(10, recorder.totalSteps());
+    assertArrayEquals(new int[] {6, 7, 8, 9}, pcs(recorder.last(10)));
+    assertArrayEquals(new int[] {8, 9}, pcs(recorder.last(2)));
+
+    recorder.clear();
+    assertEquals(0, recorder.last(10).length);
+  }
+
+  @Test
+  void testFormat() {
+    TraceRecorder recorder = new TraceRecorder(2);
+    recorder.record(TraceRecorder.pack(4, 0x10, 0x75, 5, 12, -1, 0, false));
+    recorder.record(TraceRecorder.pack(5, 0x75, 0x14, -1, 0, 20, 12, false));
+
+    assertEquals(
+        List.of("  4: 10 75 ADD  RES=12", "  5: 75 14 ST   [20]=12"), recorder.lastSteps(2));
+  }
+
+  @Test
+  void testInvalidCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new TraceRecorder(0));
+  }
+
+  private static int[] pcs(long[] entries) {
+    int[] pcs = new int[entries.length];
+    for (int i = 0; i < entries.length; i++) {
+      pcs[i] = TraceRecorder.pc(entries[i]);
+    }
+    return pcs;
+  }
+}
@@ -0,0 +1,127 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import instruction.InstructionFactory;
+import io.IOModule;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Range;
+
+class WordWidthTest {
+
+  private static final int SIZE = WordWidth.WIDE.maxCells();
+
+  private ByteStorage memory;
+
+  @BeforeEach
+  void setUp() {
+    memory = new ByteStorage(SIZE, WordWidth.WIDE);
+  }
+
+  @Test
+  void testWidths() {
+    assertEquals(0xFF, WordWidth.NARROW.mask());
+    assertEquals(256, WordWidth.NARROW.maxCells());
+    assertEquals(0xFFFF, WordWidth.WIDE.mask());
+    assertEquals(65536, WordWidth.WIDE.maxCells());
+    assertEquals(2, WordWidth.WIDE.bytesPerCell());
+  }
+
+  @Test
+  void testSizeLimitFollowsWidth() {
+    assertThrows(IllegalArgumentException.class, () -> new ByteStorage(257));
+    assertThrows(IllegalArgumentException.class, () -> new ByteStorage(SIZE + 1, WordWidth.WIDE));
+    assertEquals(WordWidth.NARROW, new ByteStorage(256).width());
+    assertEquals(WordWidth.WIDE, memory.width());
+  }
+
+  @Test
+  void testWideCellsAreMaskedTo16Bits() {
+    memory.setValueAt(SIZE - 1, 0x1234);
+    memory.setValueAt(0, -1);
+    memory.setValueAt(1, 0x12345);
+
+    assertEquals(0x1234, memory.getValueAt(SIZE - 1));
+    assertEquals(0xFFFF, memory.getValueAt(0));
+    assertEquals(0x2345, memory.getValueAt(1));
+  }
+
+  @Test
+  void testWideRegisters() {
+    RegStorage registers = new RegStorage(WordWidth.WIDE);
+    registers.setRegister(Registry.IDX_RES, 300 + 400);
+    assertEquals(700, registers.getRegister(Registry.IDX_RES));
+
+    RegStorage narrow = new RegStorage();
+    narrow.setRegister(Registry.IDX_RES, 300 + 400);
+    assertEquals(700 & 0xFF, narrow.getRegister(Registry.IDX_RES));
+  }
+
+  @Test
+  void testExportAndImportWideCells() {
+    memory.setValueAt(1, 0x1234);
+    memory.setValueAt(2, 0x00FF);
+    memory.setValueAt(1000, 0xFF00);
+
+    String base64 = memory.exportAsBase64();
+    String[] binary = memory.exportAsBinary();
+    assertEquals(1001, binary.length);
+    assertEquals("0001 0010 0011 0100", binary[1]);
+
+    ByteStorage fromBase64 = new ByteStorage(SIZE, WordWidth.WIDE);
+    fromBase64.importFromBase64(base64);
+    ByteStorage fromBinary = new ByteStorage(SIZE, WordWidth.WIDE);
+    fromBinary.importFromBinary(
+        Arrays.stream(binary).map(s -> s.replace(" ", "")).toArray(String[]::new));
+
+    for (ByteStorage imported : new ByteStorage[] {fromBase64, fromBinary}) {
+      assertArrayEquals(
+          new int[] {0, 0x1234, 0x00FF, 0}, imported.getValuesInRange(new Range(0, 4)));
+      assertEquals(0xFF00, imported.getValueAt(1000));
+      assertEquals(memory.fingerprint(), imported.fingerprint());
+    }
+  }
+
+  @Test
+  void testFingerprintCoversHighByte() {
+    memory.setValueAt(5, 0x0042);
+    long low = memory.fingerprint();
+    memory.setValueAt(5, 0x0142);
+    assertNotEquals(low, memory.fingerprint());
+  }
+
+  @Test
+  void testWideProgram() {
+    int[] program = {
+      0b0101_0011, 1000, // LD 1000 -> OP1
+      0b0101_0100, 2000, // LD 2000 -> OP2
+      0b0001_0000, // ADD
+      0b0111_0101, 40000, // ST RES -> m[40000]
+      0b0101_0000, 50000, // LD 50000 -> R0
+      0b1001_0000 // JMP R0
+    };
+    for (int i = 0; i < program.length; i++) {
+      memory.setValueAt(i, program[i]);
+    }
+    memory.setValueAt(50000, 0b1110_0000); // HLT
+
+    CPU cpu = new CPU(memory, new InstructionFactory(), new IOModule());
+    RunResult result = cpu.run(RunOptions.unlimited().withMaxSteps(100).withEngine(RunOptions.Engine.COMPILED));
+
+    assertEquals(RunResult.Reason.HALTED, result.reason());
+    assertEquals(3000, memory.getValueAt(40000));
+    assertEquals(3000, cpu.getRegistry().getRegister(Registry.IDX_RES));
+    assertEquals(50000, cpu.getProgramCounter().getCurrentIndex());
+  }
+
+  @Test
+  void testWideMachineCannotBeTraced() {
+    CPU cpu = new CPU(memory, new InstructionFactory(), new IOModule());
+    assertThrows(IllegalStateException.class, () -> cpu.setTraceRecorder(new TraceRecorder(16)));
+  }
+}
@@ -0,0 +1,88 @@
+package view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import instruction.Instruction;
+import instruction.InstructionFactory;
+import model.ByteStorage;
+import model.RegStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DisassemblerTest {
+
+  private static final int SIZE = 16;
+  private static final int LD_OP1 = 0b0101_0011; // LD <operand> -> OP1
+
+  private ByteStorage memory;
+  private RegStorage registry;
+  private Disassembler disassembler;
+
+  @BeforeEach
+  void setUp() {
+    memory = new ByteStorage(SIZE);
+    registry = new RegStorage();
+    disassembler = new Disassembler(SIZE);
+  }
+
+  private String disassemble(int address) {
+    return disassembler.disassemble(memory, registry, address, memory.getValueAt(address));
+  }
+
+  @Test
+  void testTwoCellInstructionIsTheReaderOfItsOperand() {
+    memory.setValueAt(2, LD_OP1);
+    memory.setValueAt(3, 5);
+
+    assertEquals("LD (5 → OP1)", disassemble(2));
+    assertEquals(2, disassembler.readerOf(3));
+    assertEquals(Disassembler.NO_READER, disassembler.readerOf(2));
+  }
+
+  @Test
+  void testOneCellInstructionClearsTheReaderOfTheNextCell() {
+    memory.setValueAt(2, LD_OP1);
+    memory.setValueAt(3, 5);
+    disassemble(2);
+
+    memory.setValueAt(2, InstructionFactory.INST_NOP);
+    disassemble(2);
+
+    assertEquals(Disassembler.NO_READER, disassembler.readerOf(3));
+  }
+
+  @Test
+  void testRepeatedCodeAndOperandReturnCachedText() {
+    memory.setValueAt(2, LD_OP1);
+    memory.setValueAt(3, 5);
+    memory.setValueAt(8, LD_OP1);
+    memory.setValueAt(9, 5);
+
+    String text = disassemble(2);
+    assertSame(text, disassemble(8));
+
+    memory.setValueAt(9, 6);
+    String changed = disassemble(8);
+    assertEquals("LD (6 → OP1)", changed);
+    assertNotSame(text, changed);
+  }
+
+  @Test
+  void testLastCellHasNoOperandAndIsNotCached() {
+    int last = SIZE - 1;
+    memory.setValueAt(last, InstructionFactory.INST_CPY);
+
+    String text = disassemble(last);
+    String invalid = Instruction.INVALID_REG_CHAR;
+    assertEquals("CPY (" + invalid + " → " + invalid + ")", text);
+    assertNotSame(text, disassemble(last));
+    assertEquals(Disassembler.NO_READER, disassembler.readerOf(last));
+
+    // The same code with an operand is formatted, rather than given the text of the last cell
+    memory.setValueAt(4, InstructionFactory.INST_CPY);
+    memory.setValueAt(5, 0x01);
+    assertEquals("CPY (R0 → R1)", disassemble(4));
+  }
+}